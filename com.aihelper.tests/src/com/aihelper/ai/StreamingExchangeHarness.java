@@ -0,0 +1,156 @@
+package com.aihelper.ai;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Prueba de {@link StreamingExchange} contra un servidor local que emite una
+ * línea cada {@link #LINE_INTERVAL_MILLIS}, como un modelo lento.
+ *
+ * Comprueba que un stream completo acaba en {@code onComplete} y que, tras
+ * {@code cancel()}, el servidor ve la conexión rota (broken pipe / reset) y
+ * no llega ningún {@code onChunk}, {@code onError} ni {@code onComplete}.
+ * Se ejecuta con {@code main}; sale con código 1 si algo falla.
+ */
+public final class StreamingExchangeHarness {
+
+    private static final long LINE_INTERVAL_MILLIS = 50;
+    private static final int SLOW_LINES = 400;
+    private static final int SHORT_LINES = 5;
+    private static final long WAIT_SECONDS = 10;
+
+    private static int failures;
+
+    private StreamingExchangeHarness() {}
+
+    public static void main(String[] args) throws Exception {
+        CompletableFuture<IOException> brokenPipe = new CompletableFuture<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/short", exchange -> stream(exchange, SHORT_LINES, null));
+        server.createContext("/slow", exchange -> stream(exchange, SLOW_LINES, brokenPipe));
+        ExecutorService handlers = Executors.newCachedThreadPool();
+        server.setExecutor(handlers);
+        server.start();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        try {
+            completesNormally(client, base + "/short");
+            cancelClosesConnection(client, base + "/slow", brokenPipe);
+        } finally {
+            server.stop(0);
+            handlers.shutdownNow();
+        }
+        if (failures > 0) {
+            System.out.println(failures + " check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    private static void completesNormally(HttpClient client, String url) throws InterruptedException {
+        AtomicInteger lines = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch completed = new CountDownLatch(1);
+        StreamingExchange.start(client, request(url), null, "Test",
+                line -> lines.incrementAndGet(),
+                e -> errors.incrementAndGet(),
+                completed::countDown);
+        check(completed.await(WAIT_SECONDS, TimeUnit.SECONDS), "short stream calls onComplete");
+        check(lines.get() == SHORT_LINES, "short stream delivers every line (got " + lines.get() + ")");
+        check(errors.get() == 0, "short stream reports no error");
+    }
+
+    private static void cancelClosesConnection(HttpClient client, String url,
+            CompletableFuture<IOException> brokenPipe) throws Exception {
+        AtomicBoolean cancelReturned = new AtomicBoolean();
+        AtomicInteger lateCallbacks = new AtomicInteger();
+        CountDownLatch firstLines = new CountDownLatch(3);
+        StreamingExchange exchange = StreamingExchange.start(client, request(url), null, "Test",
+                new StreamingExchange.LineSink() {
+                    @Override
+                    public void line(String line) {
+                        if (cancelReturned.get()) {
+                            lateCallbacks.incrementAndGet();
+                        }
+                        firstLines.countDown();
+                    }
+
+                    @Override
+                    public void end() {
+                        lateCallbacks.incrementAndGet();
+                    }
+                },
+                e -> lateCallbacks.incrementAndGet(),
+                lateCallbacks::incrementAndGet);
+
+        check(firstLines.await(WAIT_SECONDS, TimeUnit.SECONDS), "slow stream delivers its first lines");
+        exchange.cancel();
+        cancelReturned.set(true);
+        check(exchange.isCancelled(), "exchange reports cancelled");
+
+        IOException serverError = null;
+        try {
+            serverError = brokenPipe.get(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            // se informa abajo
+        }
+        check(serverError != null, "server sees the connection broken after cancel()");
+
+        // Margen para que cualquier callback tardío llegue a ejecutarse
+        Thread.sleep(LINE_INTERVAL_MILLIS * 10);
+        check(lateCallbacks.get() == 0,
+                "no onChunk/onError/onComplete after cancel() (got " + lateCallbacks.get() + ")");
+    }
+
+    /**
+     * Respuesta troceada de {@code lines} líneas NDJSON. Si el cliente corta,
+     * la excepción de escritura se entrega a {@code brokenPipe}.
+     */
+    private static void stream(HttpExchange exchange, int lines, CompletableFuture<IOException> brokenPipe)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int i = 0; i < lines; i++) {
+                out.write(("{\"message\":{\"content\":\"token " + i + "\"}}\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                Thread.sleep(LINE_INTERVAL_MILLIS);
+            }
+        } catch (IOException e) {
+            if (brokenPipe != null) {
+                brokenPipe.complete(e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static HttpRequest request(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    private static void check(boolean condition, String description) {
+        System.out.println((condition ? "PASS " : "FAIL ") + description);
+        if (!condition) {
+            failures++;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.aihelper.ui.chat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compara {@link ActionProtocolParser} con el camino de expresiones regulares
+ * al que sustituyó, sobre respuestas largas que mezclan prosa, código y
+ * líneas de acción en las dos formas del protocolo.
+ *
+ * Por cada respuesta se hace lo mismo que hacía la vista al recibirla:
+ * decidir si es sólo acciones, quitar las líneas de acción del texto que se
+ * muestra y sacar los parámetros de cada acción. Imprime la mediana por
+ * respuesta de cada camino y sale con código 1 si las dos versiones no
+ * encuentran las mismas acciones o si el parser nuevo es más lento en la
+ * respuesta más larga.
+ */
+public final class ActionProtocolParserBenchmark {
+
+    private static final int[] SIZES_KB = { 8, 64, 512 };
+    private static final int WARMUP_MILLIS = 1500;
+    private static final int SAMPLES = 15;
+
+    private static volatile Object sink;
+
+    private ActionProtocolParserBenchmark() {}
+
+    public static void main(String[] args) {
+        boolean ok = true;
+        System.out.printf(Locale.ROOT, "%8s %8s %14s %14s %8s%n", "size", "actions", "regex us/op", "parser us/op",
+                "speedup");
+        for (int i = 0; i < SIZES_KB.length; i++) {
+            String response = response(SIZES_KB[i] * 1024);
+            int legacyCount = LegacyRegexPath.run(response);
+            int parserCount = parserPath(response);
+            if (legacyCount != parserCount) {
+                System.out.println("FAIL different actions found: regex=" + legacyCount + " parser=" + parserCount);
+                ok = false;
+            }
+            double legacy = measure(() -> LegacyRegexPath.run(response));
+            double parser = measure(() -> parserPath(response));
+            System.out.printf(Locale.ROOT, "%6dKB %8d %14.1f %14.1f %7.1fx%n",
+                    SIZES_KB[i], parserCount, legacy / 1000, parser / 1000, legacy / parser);
+            if (i == SIZES_KB.length - 1 && parser >= legacy) {
+                System.out.println("FAIL parser is not faster than the regex path on the longest response");
+                ok = false;
+            }
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    /** Lo que hace hoy la vista con una respuesta; devuelve cuántas acciones distintas hay. */
+    private static int parserPath(String response) {
+        List<ActionRequest> actions = ActionProtocolParser.parse(response);
+        boolean onlyActions = ActionProtocolParser.isOnlyActions(response, actions);
+        String visible = ActionProtocolParser.stripActions(response, actions).strip();
+        Set<String> keys = new HashSet<>();
+        for (ActionRequest action : actions) {
+            keys.add(action.key());
+        }
+        sink = onlyActions ? visible : keys;
+        return keys.size();
+    }
+
+    /** Mediana en nanosegundos de una ejecución, tras calentar. */
+    private static double measure(Runnable op) {
+        long warmupEnd = System.nanoTime() + WARMUP_MILLIS * 1_000_000L;
+        int perSample = 0;
+        while (System.nanoTime() < warmupEnd) {
+            op.run();
+            perSample++;
+        }
+        perSample = Math.max(1, perSample / 10);
+        double[] samples = new double[SAMPLES];
+        for (int s = 0; s < SAMPLES; s++) {
+            long start = System.nanoTime();
+            for (int k = 0; k < perSample; k++) {
+                op.run();
+            }
+            samples[s] = (System.nanoTime() - start) / (double) perSample;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+
+    /**
+     * Respuesta de unos {@code chars} caracteres: párrafos, bloques de código
+     * y, entre ellos, acciones distintas en forma clave=valor y JSON.
+     */
+    private static String response(int chars) {
+        String prose = "The dispatcher reads the response once the stream ends and decides whether the model "
+                + "asked for more context or answered the user. Long answers mix explanation, code and the "
+                + "occasional action line, so parsing cost grows with the size of the text.\n\n";
+        String code = "```java\npublic void run() {\n    for (String line : lines) {\n        if (line.isBlank()) "
+                + "continue;\n        handle(line);\n    }\n}\n```\n\n";
+        StringBuilder sb = new StringBuilder(chars + 512);
+        for (int n = 0; sb.length() < chars; n++) {
+            sb.append(prose);
+            switch (n % 6) {
+                case 0 -> sb.append("[ACTION:READ_FILE] project=demo path=src/pkg/File").append(n).append(".java\n\n");
+                case 1 -> sb.append("[ACTION:READ_FILE_RANGE] {\"project\": \"demo\", \"path\": \"src/pkg/Range")
+                        .append(n).append(".java\", \"start\": 10, \"end\": 80}\n\n");
+                case 2 -> sb.append(code);
+                case 3 -> sb.append("[ACTION:SEARCH_TEXT] project=demo query=needle").append(n).append(" limit=20\n\n");
+                case 4 -> sb.append("[ACTION:LIST_FILES] project=demo").append(n).append(" depth=3 limit=100\n\n");
+                default -> sb.append("[ACTION:READ_FILE] {\"project\": \"demo\", \"path\": \"src/pkg/Json")
+                        .append(n).append(".java\"}\n\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * El camino anterior, copiado de la vista y del despachador tal como
+     * estaban: comprobación de "sólo acciones" y limpieza con expresiones
+     * sobre toda la respuesta, corte en segmentos por {@code [ACTION:} y una
+     * cascada de patrones por segmento hasta que uno encaja.
+     */
+    private static final class LegacyRegexPath {
+
+        private static final String ACTION_TAG = "[ACTION:";
+
+        private static final Pattern READ_FILE_KV = Pattern.compile(
+            "\\[ACTION:READ_FILE\\]\\s*project=([^\\s\"]+|\"[^\"]+\")\\s+path=([^\\s\"]+|\"[^\"]+\")",
+            Pattern.CASE_INSENSITIVE);
+        private static final Pattern READ_FILE_JSON = Pattern.compile(
+            "\\[ACTION:READ_FILE\\]\\s*\\{[^}]*\"project\"\\s*:\\s*\"([^\"]+)\"[^}]*\"path\"\\s*:\\s*\"([^\"]+)\"[^}]*\\}",
+            Pattern.CASE_INSENSITIVE);
+        private static final Pattern LIST_FILES_PATTERN = Pattern.compile(
+            "\\[ACTION:LIST_FILES\\]\\s*project=([^\\s\"]+|\"[^\"]+\")(?:\\s+depth=(\\d+))?(?:\\s+limit=(\\d+))?",
+            Pattern.CASE_INSENSITIVE);
+        private static final Pattern SEARCH_TEXT_PATTERN = Pattern.compile(
+            "\\[ACTION:SEARCH_TEXT\\]\\s*project=([^\\s\"]+|\"[^\"]+\")\\s+query=([^\\s\"]+|\"[^\"]+\")(?:\\s+limit=(\\d+))?",
+            Pattern.CASE_INSENSITIVE);
+        private static final Pattern READ_FILE_RANGE_PATTERN = Pattern.compile(
+            "\\[ACTION:READ_FILE_RANGE\\].*project=([^\\s\"]+|\"[^\"]+\")\\s+path=([^\\s\"]+|\"[^\"]+\")\\s+start=(\\d+)\\s+end=(\\d+)",
+            Pattern.CASE_INSENSITIVE);
+        private static final Pattern READ_FILE_RANGE_JSON = Pattern.compile(
+            "\\[ACTION:READ_FILE_RANGE\\]\\s*\\{[^}]*\"project\"\\s*:\\s*\"([^\"]+)\"[^}]*\"path\"\\s*:\\s*\"([^\"]+)\"[^}]*\"start\"\\s*:\\s*(\\d+)\\s*[^}]*\"end\"\\s*:\\s*(\\d+)\\s*[^}]*\\}",
+            Pattern.CASE_INSENSITIVE);
+        private static final Pattern READ_ACTIVE_FILE_PATTERN = Pattern.compile("\\[ACTION:READ_ACTIVE_FILE\\]", Pattern.CASE_INSENSITIVE);
+        private static final Pattern READ_ACTIVE_SELECTION_PATTERN = Pattern.compile("\\[ACTION:READ_ACTIVE_SELECTION\\]", Pattern.CASE_INSENSITIVE);
+        private static final Pattern LIST_OPEN_FILES_PATTERN = Pattern.compile("\\[ACTION:LIST_OPEN_FILES\\]", Pattern.CASE_INSENSITIVE);
+        private static final Pattern READ_PROJECT_PATTERN = Pattern.compile("\\[ACTION:READ_PROJECT\\]", Pattern.CASE_INSENSITIVE);
+        private static final Pattern READ_PROJECT_FULL_PATTERN = Pattern.compile("\\[ACTION:READ_PROJECT_FULL\\]\\s*project=([^\\s\"]+|\"[^\"]+\")", Pattern.CASE_INSENSITIVE);
+
+        /** Orden de la cascada original. */
+        private static final List<Pattern> CASCADE = List.of(
+                READ_FILE_RANGE_JSON, READ_FILE_RANGE_PATTERN, READ_FILE_JSON, READ_FILE_KV,
+                READ_ACTIVE_FILE_PATTERN, READ_ACTIVE_SELECTION_PATTERN, READ_PROJECT_PATTERN,
+                LIST_FILES_PATTERN, SEARCH_TEXT_PATTERN, LIST_OPEN_FILES_PATTERN, READ_PROJECT_FULL_PATTERN);
+
+        static int run(String text) {
+            String trimmed = text.trim();
+            boolean onlyAction = trimmed.matches("^\\[ACTION:[^\\]]+].*$")
+                    || trimmed.matches("^\\[ACTION:[^\\]]+].*\\n*$");
+            boolean onlyInstruction = trimmed.matches(
+                    "(?s)^Puedes decidir si necesitas ejecutar más acciones.*usuario\\.?$");
+            String visible = text.replaceAll("(?m)^\\[ACTION:[^\\]]+].*$", "");
+            visible = visible.replaceAll("(?s)Puedes decidir si necesitas ejecutar más acciones.*usuario\\.?$", "");
+            visible = visible.replaceAll("^[ \t\r\n]+|[ \t\r\n]+$", "");
+
+            List<String> found = new ArrayList<>();
+            for (String segment : splitActions(text)) {
+                for (Pattern pattern : CASCADE) {
+                    Matcher m = pattern.matcher(segment);
+                    if (m.find()) {
+                        StringBuilder params = new StringBuilder();
+                        for (int g = 1; g <= m.groupCount(); g++) {
+                            params.append(m.group(g)).append('|');
+                        }
+                        found.add(params.toString());
+                        break;
+                    }
+                }
+            }
+            sink = onlyAction || onlyInstruction ? visible : found;
+            return found.size();
+        }
+
+        private static List<String> splitActions(String text) {
+            List<String> segments = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            String upper = text.toUpperCase(Locale.ROOT);
+            int start = upper.indexOf(ACTION_TAG);
+            while (start >= 0) {
+                int next = upper.indexOf(ACTION_TAG, start + ACTION_TAG.length());
+                String segment = text.substring(start, next < 0 ? text.length() : next).trim();
+                String firstLine = segment.lines().findFirst().orElse(segment).trim();
+                if (seen.add(firstLine.toUpperCase(Locale.ROOT))) {
+                    segments.add(segment);
+                }
+                start = next;
+            }
+            return segments;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.aihelper;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
 
+import com.aihelper.workspace.ProjectSnapshotService;
+
 public class Activator extends AbstractUIPlugin {
 
     public static final String PLUGIN_ID = "com.aihelper";
@@ -13,10 +15,13 @@ public class Activator extends AbstractUIPlugin {
     public void start(BundleContext context) throws Exception {
         super.start(context);
         instance = this;
+        // El resumen de proyectos se calcula en un Job, antes del primer READ_PROJECT
+        ProjectSnapshotService.getDefault().start();
     }
 
     @Override
     public void stop(BundleContext context) throws Exception {
+        ProjectSnapshotService.getDefault().stop();
         instance = null;
         super.stop(context);
     }
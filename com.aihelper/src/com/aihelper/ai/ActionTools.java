@@ -0,0 +1,195 @@
+package com.aihelper.ai;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.aihelper.ai.util.JsonBody;
+import com.aihelper.ai.util.JsonParser;
+import com.aihelper.ai.util.JsonWriter;
+
+/**
+ * Las acciones del IDE declaradas como herramientas nativas del proveedor.
+ *
+ * Cada herramienta equivale a una línea {@code [ACTION:...]} del protocolo de
+ * texto: cuando el modelo la invoca, {@link #toActionLine} genera la línea
+ * canónica en forma JSON (los argumentos llegan intactos) y el resto de la
+ * cadena (vista, dispatcher, historial) la trata igual que si el modelo la
+ * hubiera escrito.
+ */
+public final class ActionTools {
+
+    /** Formato del esquema según el proveedor. */
+    enum Dialect {
+        /** {@code tools: [{type: function, function: {...}}]} (OpenAI y Ollama). */
+        OPENAI,
+        /** {@code tools: [{functionDeclarations: [...]}]} con tipos en mayúsculas. */
+        GEMINI
+    }
+
+    private record Param(String name, boolean integer, boolean required, String description) {}
+
+    private record Tool(String action, String description, List<Param> params) {
+        String functionName() {
+            return action.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final Param PROJECT = new Param("project", false, true, "Workspace project name");
+    private static final Param PATH = new Param("path", false, true, "Path relative to the project root");
+    private static final Param CURSOR = new Param("cursor", true, false, "next_cursor of the previous page");
+
+    private static final List<Tool> TOOLS = List.of(
+            new Tool("READ_FILE", "Read a whole file of a workspace project.", List.of(PROJECT, PATH)),
+            new Tool("READ_FILE_RANGE", "Read a range of lines (1-based, inclusive) of a file.", List.of(
+                    PROJECT, PATH,
+                    new Param("start", true, true, "First line"),
+                    new Param("end", true, true, "Last line"))),
+            new Tool("READ_FILES", "Read several files at once, by list or glob, sharing one size budget.", List.of(
+                    PROJECT,
+                    new Param("paths", false, false, "Comma-separated paths relative to the project root"),
+                    new Param("glob", false, false, "Glob over project paths, e.g. src/**/*.java"))),
+            new Tool("READ_OUTLINE", "Outline of a file: types, fields and signatures with line numbers.",
+                    List.of(PROJECT, PATH)),
+            new Tool("READ_ACTIVE_FILE", "Read the file open in the active editor.", List.of()),
+            new Tool("READ_ACTIVE_SELECTION", "Read the text selected in the active editor.", List.of()),
+            new Tool("READ_PROJECT", "Summary of the workspace projects.", List.of()),
+            new Tool("READ_PROJECT_FULL", "List every file of a project as a compact tree, paged.", List.of(
+                    PROJECT, CURSOR)),
+            new Tool("LIST_FILES", "List the file tree of a project as a compact tree, paged.", List.of(
+                    PROJECT,
+                    new Param("depth", true, false, "Maximum depth"),
+                    new Param("limit", true, false, "Maximum number of entries per page"),
+                    CURSOR)),
+            new Tool("LIST_OPEN_FILES", "List the files open in editors.", List.of()),
+            new Tool("SEARCH_TEXT", "Search plain text in the files of a project.", List.of(
+                    PROJECT,
+                    new Param("query", false, true, "Text to search for"),
+                    new Param("limit", true, false, "Maximum number of matches"))),
+            new Tool("GREP", "Regex search with context lines; files with the densest matches come first.", List.of(
+                    PROJECT,
+                    new Param("pattern", false, true, "Java regular expression, matched line by line"),
+                    new Param("glob", false, false, "Only files matching this glob, e.g. src/**/*.java"),
+                    new Param("context", true, false, "Context lines around each match (default 2)"),
+                    new Param("max_per_file", true, false, "Matches shown per file (default 5)"),
+                    new Param("ignore_case", false, false, "true for a case-insensitive search"))));
+
+    private ActionTools() {}
+
+    /**
+     * Escribe el valor del campo {@code tools} de la petición.
+     */
+    static void writeTo(JsonWriter json, Dialect dialect) {
+        json.beginArray();
+        if (dialect == Dialect.GEMINI) {
+            json.beginObject().name("functionDeclarations").beginArray();
+            for (Tool tool : TOOLS) {
+                writeFunction(json, tool, true);
+            }
+            json.endArray().endObject();
+        } else {
+            for (Tool tool : TOOLS) {
+                json.beginObject().name("type").value("function").name("function");
+                writeFunction(json, tool, false);
+                json.endObject();
+            }
+        }
+        json.endArray();
+    }
+
+    private static void writeFunction(JsonWriter json, Tool tool, boolean upperCaseTypes) {
+        json.beginObject()
+            .name("name").value(tool.functionName())
+            .name("description").value(tool.description());
+        if (!tool.params().isEmpty() || !upperCaseTypes) {
+            // Gemini rechaza un objeto sin propiedades; OpenAI lo exige siempre
+            json.name("parameters").beginObject()
+                .name("type").value(type("object", upperCaseTypes))
+                .name("properties").beginObject();
+            for (Param param : tool.params()) {
+                json.name(param.name()).beginObject()
+                    .name("type").value(type(param.integer() ? "integer" : "string", upperCaseTypes))
+                    .name("description").value(param.description())
+                    .endObject();
+            }
+            json.endObject().name("required").beginArray();
+            for (Param param : tool.params()) {
+                if (param.required()) {
+                    json.value(param.name());
+                }
+            }
+            json.endArray().endObject();
+        }
+        json.endObject();
+    }
+
+    private static String type(String type, boolean upperCase) {
+        return upperCase ? type.toUpperCase(Locale.ROOT) : type;
+    }
+
+    /**
+     * Traduce una llamada a herramienta a la línea {@code [ACTION:...]}
+     * equivalente. Los argumentos pueden llegar como objeto ya leído o como
+     * texto JSON (OpenAI los envía como cadena). Devuelve {@code null} si la
+     * herramienta no es una de las declaradas.
+     */
+    static String toActionLine(String functionName, Object arguments) {
+        Tool tool = find(functionName);
+        if (tool == null) {
+            return null;
+        }
+        Map<?, ?> args = arguments instanceof Map<?, ?> map ? map
+                : arguments instanceof String text && !text.isBlank() ? JsonParser.parseObject(text)
+                : null;
+
+        // Forma JSON del protocolo: conserva comillas, barras y saltos de línea tal cual
+        JsonWriter json = JsonWriter.create().beginObject();
+        boolean any = false;
+        for (Param param : tool.params()) {
+            Object value = args == null ? null : args.get(param.name());
+            if (value instanceof Number number && number.doubleValue() == Math.rint(number.doubleValue())) {
+                json.name(param.name()).value(number.longValue());
+            } else if (value instanceof Boolean flag) {
+                json.name(param.name()).value(flag);
+            } else if (value instanceof List<?> list && !list.isEmpty() && isScalarList(list)) {
+                // El parser une las listas con ',' (paths=a,b)
+                json.name(param.name()).beginArray();
+                list.forEach(item -> json.value(item.toString()));
+                json.endArray();
+            } else if (value != null && !(value instanceof Map || value instanceof List)
+                    && !value.toString().isBlank()) {
+                json.name(param.name()).value(value.toString());
+            } else {
+                continue;
+            }
+            any = true;
+        }
+        JsonBody body = json.endObject().toBody();
+        try {
+            return "[ACTION:" + tool.action() + "]" + (any ? " " + body.asString() : "");
+        } finally {
+            body.release();
+        }
+    }
+
+    private static boolean isScalarList(List<?> list) {
+        for (Object item : list) {
+            if (item == null || item instanceof Map || item instanceof List) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Tool find(String functionName) {
+        if (functionName == null) {
+            return null;
+        }
+        for (Tool tool : TOOLS) {
+            if (tool.functionName().equalsIgnoreCase(functionName.trim())) {
+                return tool;
+            }
+        }
+        return null;
+    }
+}
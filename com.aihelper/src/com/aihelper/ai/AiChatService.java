@@ -1,6 +1,7 @@
 package com.aihelper.ai;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 public interface AiChatService {
@@ -8,7 +9,8 @@ public interface AiChatService {
 
     /**
      * Inicia un streaming y devuelve un manejador de cancelación. El manejador
-     * debe ser seguro de invocar múltiples veces.
+     * debe ser seguro de invocar múltiples veces; al invocarlo se cierra la
+     * conexión y no se emite ningún callback más.
      */
     Runnable sendMessageStreaming(
             String prompt,
@@ -20,4 +22,29 @@ public interface AiChatService {
 
 	void setModel(String model);
 	List<String> listModels();
+
+    /**
+     * Catálogo de modelos sin bloquear al llamante. Puede terminar con error
+     * si el proveedor no responde; {@link #listModels()} en cambio devuelve
+     * siempre una lista de reserva.
+     */
+    default CompletableFuture<List<String>> listModelsAsync() {
+        return CompletableFuture.supplyAsync(this::listModels);
+    }
+
+    /**
+     * Clase de prioridad con la que se encolarán las próximas peticiones.
+     * Los servicios sin planificador la ignoran.
+     */
+    default void setPriority(RequestPriority priority) {
+    }
+
+    /**
+     * Prepara el camino de la primera petición (conexión en el pool, modelo
+     * cargado) sin generar tokens. Termina de forma excepcional si el
+     * proveedor no responde; nunca es obligatorio esperarla.
+     */
+    default CompletableFuture<Void> warmUp() {
+        return CompletableFuture.completedFuture(null);
+    }
 }
@@ -0,0 +1,38 @@
+package com.aihelper.ai;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Sirve {@link #listModelsAsync()} desde el {@link ModelCatalog} compartido
+ * (caché persistente con revalidación en segundo plano). El streaming pasa
+ * directo al servicio envuelto.
+ */
+public class CatalogCachingChatService extends ForwardingChatService {
+
+    private final String providerKey;
+    private final Supplier<String> endpoint;
+
+    public CatalogCachingChatService(String providerKey, Supplier<String> endpoint, AiChatService delegate) {
+        super(delegate);
+        this.providerKey = providerKey;
+        this.endpoint = endpoint;
+    }
+
+    @Override
+    public Runnable sendMessageStreaming(
+            String prompt,
+            String context,
+            Consumer<String> onChunk,
+            Consumer<Throwable> onError,
+            Runnable onComplete) {
+        return delegate.sendMessageStreaming(prompt, context, onChunk, onError, onComplete);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> listModelsAsync() {
+        return ModelCatalog.getDefault().models(providerKey, endpoint.get(), delegate);
+    }
+}
@@ -0,0 +1,82 @@
+package com.aihelper.ai;
+
+import com.aihelper.preferences.CredentialsService;
+
+/**
+ * Crea el servicio de chat de un proveedor con las capas compartidas de
+ * transporte: catálogo de modelos en caché, coalescencia de peticiones
+ * idénticas, reintentos con circuit breaker, límite de concurrencia y
+ * plazos del stream.
+ */
+public final class ChatServiceFactory {
+
+    private ChatServiceFactory() {}
+
+    public static AiChatService create(String provider) {
+        String key = providerKey(provider);
+        AiChatService service = switch (key) {
+            case "OpenAI" -> new OpenAiChatService();
+            case "Gemini" -> new GeminiChatService();
+            case "Qwen" -> new QwenChatService();
+            case "DeepSeek" -> new DeepSeekChatService();
+            default -> new OllamaChatService();
+        };
+        return new CatalogCachingChatService(key, () -> baseUrl(key),
+                new CoalescingChatService(key,
+                        new ResilientChatService(key, () -> baseUrl(key),
+                                new ScheduledChatService(key,
+                                        new DeadlineChatService(key, service)))));
+    }
+
+    /**
+     * Servicio con cobertura hacia el proveedor/modelo secundario configurado,
+     * o {@code null} si la cobertura está desactivada o el secundario coincide
+     * con el principal.
+     */
+    public static AiChatService createHedged(String provider, String model) {
+        if (!CredentialsService.isHedgeEnabled()) {
+            return null;
+        }
+        String secondaryProvider = CredentialsService.getHedgeProvider();
+        if (secondaryProvider == null || secondaryProvider.isBlank()) {
+            return null;
+        }
+        String primaryKey = providerKey(provider);
+        String secondaryKey = providerKey(secondaryProvider);
+        String secondaryModel = CredentialsService.getHedgeModel();
+        boolean sameModel = secondaryModel == null || secondaryModel.isBlank()
+                || secondaryModel.trim().equals(model == null ? "" : model.trim());
+        if (primaryKey.equals(secondaryKey) && sameModel) {
+            return null;
+        }
+
+        AiChatService secondary = create(secondaryKey);
+        if (secondaryModel != null && !secondaryModel.isBlank()) {
+            secondary.setModel(secondaryModel.trim());
+        }
+        AiChatService hedged = new HedgedChatService(primaryKey, create(primaryKey), secondaryKey, secondary,
+                CredentialsService.getHedgePercentile());
+        if (model != null && !model.isBlank()) {
+            hedged.setModel(model);
+        }
+        return hedged;
+    }
+
+    public static String providerKey(String provider) {
+        String name = provider == null ? "" : provider.trim();
+        return switch (name) {
+            case "OpenAI", "Gemini", "Qwen", "DeepSeek" -> name;
+            default -> "Ollama";
+        };
+    }
+
+    private static String baseUrl(String providerKey) {
+        return switch (providerKey) {
+            case "OpenAI" -> CredentialsService.getOpenAiBaseUrl();
+            case "Gemini" -> CredentialsService.getGeminiBaseUrl();
+            case "Qwen" -> CredentialsService.getQwenBaseUrl();
+            case "DeepSeek" -> CredentialsService.getDeepSeekBaseUrl();
+            default -> CredentialsService.getOllamaBaseUrl();
+        };
+    }
+}
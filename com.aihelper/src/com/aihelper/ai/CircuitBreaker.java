@@ -0,0 +1,79 @@
+package com.aihelper.ai;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Circuit breaker por endpoint. Tras {@link #FAILURE_THRESHOLD} fallos
+ * transitorios seguidos se abre y rechaza peticiones durante
+ * {@link #OPEN_MILLIS}; después deja pasar una sola de prueba (semiabierto)
+ * que decide si vuelve a cerrarse o a abrirse.
+ */
+final class CircuitBreaker {
+
+    static final int FAILURE_THRESHOLD = 3;
+    static final long OPEN_MILLIS = 30_000;
+
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String provider;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    private CircuitBreaker(String provider) {
+        this.provider = provider;
+    }
+
+    static CircuitBreaker forEndpoint(String provider, String endpoint) {
+        return BREAKERS.computeIfAbsent(provider + "@" + endpoint, k -> new CircuitBreaker(provider));
+    }
+
+    /**
+     * @return {@code true} si la petición puede salir.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= OPEN_MILLIS) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        ProviderMetrics.increment(provider, ProviderMetrics.CIRCUIT_REJECTED);
+        return false;
+    }
+
+    synchronized long remainingOpenMillis() {
+        return Math.max(0, OPEN_MILLIS - (System.currentTimeMillis() - openedAt));
+    }
+
+    synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= FAILURE_THRESHOLD) {
+            if (state != State.OPEN) {
+                ProviderMetrics.increment(provider, ProviderMetrics.CIRCUIT_OPENED);
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Una prueba semiabierta que no llegó a ningún resultado (cancelada) no
+     * debe dejar el circuito bloqueado.
+     */
+    synchronized void recordAbandoned() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis() - OPEN_MILLIS;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.aihelper.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Single-flight sobre un proveedor: si llega una petición idéntica (mismo
+ * proveedor, modelo, prompt y contexto) mientras otra sigue en curso, el nuevo
+ * suscriptor se engancha al mismo stream en lugar de abrir otro. Los fragmentos
+ * ya recibidos se le reenvían antes de seguir con los nuevos.
+ */
+public class CoalescingChatService extends ForwardingChatService {
+
+    private static final Map<FlightKey, Flight> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    private final String providerKey;
+
+    public CoalescingChatService(String providerKey, AiChatService delegate) {
+        super(delegate);
+        this.providerKey = providerKey;
+    }
+
+    @Override
+    public Runnable sendMessageStreaming(
+            String prompt,
+            String context,
+            Consumer<String> onChunk,
+            Consumer<Throwable> onError,
+            Runnable onComplete) {
+
+        FlightKey key = new FlightKey(providerKey, currentModel(), prompt, context);
+        Subscriber subscriber = new Subscriber(onChunk, onError, onComplete);
+
+        while (true) {
+            Flight flight = IN_FLIGHT.computeIfAbsent(key, Flight::new);
+            Boolean leader = flight.join(subscriber);
+            if (leader == null) {
+                // El vuelo terminó entre la búsqueda y la suscripción.
+                IN_FLIGHT.remove(key, flight);
+                continue;
+            }
+            if (leader) {
+                flight.attach(delegate.sendMessageStreaming(
+                        prompt,
+                        context,
+                        flight::publishChunk,
+                        flight::publishError,
+                        flight::publishComplete));
+            }
+            return () -> flight.leave(subscriber);
+        }
+    }
+
+    private record FlightKey(String provider, String model, String prompt, String context) {}
+
+    private static final class Subscriber {
+        private final Consumer<String> onChunk;
+        private final Consumer<Throwable> onError;
+        private final Runnable onComplete;
+
+        private Subscriber(Consumer<String> onChunk, Consumer<Throwable> onError, Runnable onComplete) {
+            this.onChunk = onChunk;
+            this.onError = onError;
+            this.onComplete = onComplete;
+        }
+    }
+
+    private static final class Flight {
+
+        private final FlightKey key;
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private final StringBuilder replay = new StringBuilder();
+        private boolean started;
+        private boolean finished;
+        private Runnable upstreamCancel;
+
+        private Flight(FlightKey key) {
+            this.key = key;
+        }
+
+        /**
+         * @return {@code true} si el suscriptor debe arrancar el stream,
+         *         {@code false} si se unió a uno existente y {@code null} si el
+         *         vuelo ya había terminado.
+         */
+        private synchronized Boolean join(Subscriber subscriber) {
+            if (finished) {
+                return null;
+            }
+            if (replay.length() > 0) {
+                subscriber.onChunk.accept(replay.toString());
+            }
+            subscribers.add(subscriber);
+            if (started) {
+                return Boolean.FALSE;
+            }
+            started = true;
+            return Boolean.TRUE;
+        }
+
+        private void attach(Runnable cancel) {
+            boolean cancelNow;
+            synchronized (this) {
+                upstreamCancel = cancel;
+                cancelNow = finished && subscribers.isEmpty();
+            }
+            if (cancelNow && cancel != null) {
+                cancel.run();
+            }
+        }
+
+        private void leave(Subscriber subscriber) {
+            Runnable cancel = null;
+            synchronized (this) {
+                if (!subscribers.remove(subscriber) || !subscribers.isEmpty() || finished) {
+                    return;
+                }
+                finished = true;
+                cancel = upstreamCancel;
+            }
+            IN_FLIGHT.remove(key, this);
+            if (cancel != null) {
+                cancel.run();
+            }
+        }
+
+        private synchronized void publishChunk(String chunk) {
+            if (finished || chunk == null) {
+                return;
+            }
+            replay.append(chunk);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.onChunk.accept(chunk);
+            }
+        }
+
+        private synchronized void publishError(Throwable error) {
+            if (finished) {
+                return;
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.onError.accept(error);
+            }
+        }
+
+        private void publishComplete() {
+            List<Subscriber> snapshot;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                snapshot = List.copyOf(subscribers);
+                subscribers.clear();
+            }
+            IN_FLIGHT.remove(key, this);
+            for (Subscriber subscriber : snapshot) {
+                subscriber.onComplete.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.aihelper.ai;
+
+import java.util.Locale;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Vigila cada streaming con los {@link StreamDeadlines} del proveedor: plazo
+ * hasta el primer token, inactividad entre fragmentos y plazo total. Al
+ * vencer uno se cancela la petición con el mismo manejador que usa Stop (lo
+ * que cierra la conexión) y se informa un {@link StreamDeadlineException} con
+ * los tiempos observados, seguido de onComplete. Las capas de reintento no lo
+ * tratan como transitorio.
+ *
+ * Va justo encima del proveedor, así que la espera en cola del planificador
+ * no cuenta para los plazos.
+ */
+public class DeadlineChatService extends ForwardingChatService {
+
+    private final String providerKey;
+
+    public DeadlineChatService(String providerKey, AiChatService delegate) {
+        super(delegate);
+        this.providerKey = providerKey;
+    }
+
+    @Override
+    public Runnable sendMessageStreaming(
+            String prompt,
+            String context,
+            Consumer<String> onChunk,
+            Consumer<Throwable> onError,
+            Runnable onComplete) {
+
+        StreamDeadlines deadlines = StreamDeadlines.forProvider(providerKey);
+        if (deadlines.ttftSeconds() <= 0 && deadlines.idleSeconds() <= 0 && deadlines.totalSeconds() <= 0) {
+            return delegate.sendMessageStreaming(prompt, context, onChunk, onError, onComplete);
+        }
+        Watch watch = new Watch(deadlines, onChunk, onError, onComplete);
+        watch.start(prompt, context);
+        return watch::cancel;
+    }
+
+    private final class Watch {
+
+        private final StreamDeadlines deadlines;
+        private final Consumer<String> onChunk;
+        private final Consumer<Throwable> onError;
+        private final Runnable onComplete;
+        private final long startedAt = System.nanoTime();
+
+        private Runnable upstream;
+        private ScheduledFuture<?> firstTokenTimer;
+        private ScheduledFuture<?> idleTimer;
+        private ScheduledFuture<?> totalTimer;
+        private long firstTokenAt;
+        private volatile long lastChunkAt = startedAt;
+        private int chunks;
+        private boolean finished;
+
+        private Watch(StreamDeadlines deadlines,
+                Consumer<String> onChunk, Consumer<Throwable> onError, Runnable onComplete) {
+            this.deadlines = deadlines;
+            this.onChunk = onChunk;
+            this.onError = onError;
+            this.onComplete = onComplete;
+        }
+
+        private void start(String prompt, String context) {
+            synchronized (this) {
+                if (deadlines.ttftSeconds() > 0) {
+                    firstTokenTimer = DelayedTasks.schedule(this::firstTokenExpired,
+                            TimeUnit.SECONDS.toMillis(deadlines.ttftSeconds()));
+                } else {
+                    armIdle(TimeUnit.SECONDS.toMillis(deadlines.idleSeconds()));
+                }
+                if (deadlines.totalSeconds() > 0) {
+                    totalTimer = DelayedTasks.schedule(this::totalExpired,
+                            TimeUnit.SECONDS.toMillis(deadlines.totalSeconds()));
+                }
+            }
+            Runnable handle = delegate.sendMessageStreaming(
+                    prompt,
+                    context,
+                    this::chunk,
+                    error -> {
+                        synchronized (this) {
+                            if (finished) {
+                                return;
+                            }
+                        }
+                        onError.accept(error);
+                    },
+                    () -> {
+                        synchronized (this) {
+                            if (finished) {
+                                return;
+                            }
+                            finished = true;
+                            stopTimers();
+                        }
+                        onComplete.run();
+                    });
+            boolean cancelNow;
+            synchronized (this) {
+                upstream = handle;
+                cancelNow = finished;
+            }
+            if (cancelNow) {
+                handle.run();
+            }
+        }
+
+        private void chunk(String chunk) {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                lastChunkAt = System.nanoTime();
+                if (chunks++ == 0) {
+                    firstTokenAt = lastChunkAt;
+                    if (firstTokenTimer != null) {
+                        firstTokenTimer.cancel(false);
+                    }
+                    armIdle(TimeUnit.SECONDS.toMillis(deadlines.idleSeconds()));
+                }
+            }
+            onChunk.accept(chunk);
+        }
+
+        /**
+         * Un único temporizador de inactividad: al saltar comprueba el último
+         * fragmento y, si hubo actividad, se reprograma por lo que falta.
+         */
+        private void armIdle(long delayMillis) {
+            if (deadlines.idleSeconds() > 0 && !finished) {
+                idleTimer = DelayedTasks.schedule(this::idleCheck, Math.max(1, delayMillis));
+            }
+        }
+
+        private void idleCheck() {
+            long limit = TimeUnit.SECONDS.toNanos(deadlines.idleSeconds());
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                long idle = System.nanoTime() - lastChunkAt;
+                if (idle < limit) {
+                    armIdle(TimeUnit.NANOSECONDS.toMillis(limit - idle));
+                    return;
+                }
+            }
+            expire(StreamDeadlineException.Kind.IDLE, String.format(Locale.ROOT, "%s: stream inactivo %s s (límite %d s)",
+                    providerKey, seconds(System.nanoTime() - lastChunkAt), deadlines.idleSeconds()));
+        }
+
+        private void firstTokenExpired() {
+            expire(StreamDeadlineException.Kind.FIRST_TOKEN, String.format(Locale.ROOT, "%s: sin primer token tras %d s",
+                    providerKey, deadlines.ttftSeconds()));
+        }
+
+        private void totalExpired() {
+            expire(StreamDeadlineException.Kind.TOTAL, String.format(Locale.ROOT, "%s: plazo total de %d s agotado",
+                    providerKey, deadlines.totalSeconds()));
+        }
+
+        private void expire(StreamDeadlineException.Kind kind, String reason) {
+            Runnable handle;
+            String detail;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                stopTimers();
+                handle = upstream;
+                detail = timing();
+            }
+            if (handle != null) {
+                handle.run();
+            }
+            onError.accept(new StreamDeadlineException(kind, reason + " · " + detail));
+            onComplete.run();
+        }
+
+        private void cancel() {
+            Runnable handle;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                stopTimers();
+                handle = upstream;
+            }
+            if (handle != null) {
+                handle.run();
+            }
+        }
+
+        private String timing() {
+            long now = System.nanoTime();
+            StringBuilder sb = new StringBuilder("transcurrido ").append(seconds(now - startedAt)).append(" s");
+            if (chunks > 0) {
+                sb.append(", primer token a ").append(seconds(firstTokenAt - startedAt)).append(" s")
+                  .append(", ").append(chunks).append(" fragmentos")
+                  .append(", último hace ").append(seconds(now - lastChunkAt)).append(" s");
+            } else {
+                sb.append(", sin fragmentos");
+            }
+            return sb.toString();
+        }
+
+        private void stopTimers() {
+            for (ScheduledFuture<?> timer : new ScheduledFuture<?>[] {firstTokenTimer, idleTimer, totalTimer}) {
+                if (timer != null) {
+                    timer.cancel(false);
+                }
+            }
+        }
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000_000.0);
+    }
+}
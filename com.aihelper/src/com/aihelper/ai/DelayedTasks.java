@@ -0,0 +1,25 @@
+package com.aihelper.ai;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temporizador compartido por las capas de transporte (esperas entre
+ * reintentos, plazos). Un único hilo demonio: las tareas deben ser cortas.
+ */
+final class DelayedTasks {
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "AI Helper transport timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private DelayedTasks() {}
+
+    static ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return TIMER.schedule(task, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,78 @@
+package com.aihelper.ai;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Base para decoradores de {@link AiChatService}: reenvía el modelo y el
+ * catálogo al servicio envuelto y resuelve {@link #sendMessage} sobre el
+ * streaming del propio decorador.
+ */
+public abstract class ForwardingChatService implements AiChatService {
+
+    protected final AiChatService delegate;
+    private volatile String model;
+    private volatile RequestPriority priority = RequestPriority.INTERACTIVE;
+
+    protected ForwardingChatService(AiChatService delegate) {
+        this.delegate = delegate;
+    }
+
+    protected String currentModel() {
+        return model;
+    }
+
+    @Override
+    public void setModel(String model) {
+        this.model = model;
+        delegate.setModel(model);
+    }
+
+    protected RequestPriority currentPriority() {
+        return priority;
+    }
+
+    @Override
+    public void setPriority(RequestPriority priority) {
+        this.priority = priority == null ? RequestPriority.INTERACTIVE : priority;
+        delegate.setPriority(this.priority);
+    }
+
+    @Override
+    public List<String> listModels() {
+        return delegate.listModels();
+    }
+
+    @Override
+    public CompletableFuture<List<String>> listModelsAsync() {
+        return delegate.listModelsAsync();
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp() {
+        return delegate.warmUp();
+    }
+
+    @Override
+    public String sendMessage(String prompt, String context) {
+        StringBuilder result = new StringBuilder();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        sendMessageStreaming(
+                prompt,
+                context,
+                result::append,
+                e -> result.append("\nERROR: ").append(e.getMessage()),
+                latch::countDown
+        );
+
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return result.toString();
+    }
+}
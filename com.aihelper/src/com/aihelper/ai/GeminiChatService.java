@@ -4,19 +4,25 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.function.Consumer;
 
-import com.aihelper.ai.util.JsonHelper;
+import com.aihelper.ai.util.JsonBody;
+import com.aihelper.ai.util.JsonParser;
+import com.aihelper.ai.util.JsonWriter;
 import com.aihelper.preferences.CredentialsService;
 
 public class GeminiChatService implements AiChatService {
 
-    private final HttpClient client = HttpClient.newHttpClient();
+    private static final Duration WARM_UP_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient client = HttpClients.forProvider("Gemini");
     private String userModel;
 
     @Override
@@ -48,53 +54,74 @@ public class GeminiChatService implements AiChatService {
             return () -> {};
         }
 
+        return NativeTools.stream("Gemini", chatModel,
+                (withTools, errorSink, completion) -> stream(
+                        apiKey, base, chatModel, prompt, context, withTools, onChunk, errorSink, completion),
+                onError,
+                onComplete);
+    }
+
+    private Runnable stream(
+            String apiKey,
+            String base,
+            String chatModel,
+            String prompt,
+            String context,
+            boolean withTools,
+            Consumer<String> onChunk,
+            Consumer<Throwable> onError,
+            Runnable onComplete) {
+
         try {
             String normalizedBase = base.endsWith("/") ? base : base + "/";
             String url = normalizedBase + "models/" + chatModel + ":generateContent?key=" + apiKey;
 
-            String payload = """
-            {
-              "contents": [
-                {
-                  "role": "user",
-                  "parts": [
-                    {"text": "%s\n\n%s"}
-                  ]
-                }
-              ]
+            JsonWriter json = JsonWriter.create()
+                    .beginObject()
+                    .name("contents").beginArray()
+                    .beginObject()
+                    .name("role").value("user")
+                    .name("parts").beginArray()
+                    .beginObject().name("text").value(orEmpty(context) + "\n\n" + orEmpty(prompt)).endObject()
+                    .endArray()
+                    .endObject()
+                    .endArray();
+            if (withTools) {
+                ActionTools.writeTo(json.name("tools"), ActionTools.Dialect.GEMINI);
             }
-            """.formatted(
-                        JsonHelper.escape(context),
-                        JsonHelper.escape(prompt)
-            );
+            JsonBody payload = json.endObject().toBody();
 
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(url))
                     .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(payload))
+                    .POST(payload)
                     .build();
 
-                var future = client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                    .thenAccept(response -> {
-                        if (response.statusCode() >= 400) {
-                            onError.accept(new IllegalStateException(
-                                    "Gemini respondió con estado " + response.statusCode()
-                                            + ": " + response.body()));
-                            return;
+            StringBuilder body = new StringBuilder();
+            StreamingExchange exchange = StreamingExchange.start(client, request, payload, "Gemini",
+                    new StreamingExchange.LineSink() {
+                        @Override
+                        public void line(String line) {
+                            body.append(line).append('\n');
                         }
-                        String text = extractText(response.body());
-                        if (!text.isBlank()) {
-                            onChunk.accept(text);
-                        }
-                    })
-                    .whenComplete((r, ex) -> {
-                        if (ex != null) {
-                            onError.accept(ex);
+
+                        @Override
+                        public void end() {
+                            String response = body.toString();
+                            if (response.contains("\"functionCall\"")) {
+                                readParts(response, onChunk);
+                                return;
+                            }
+                            String text = extractText(response);
+                            if (!text.isBlank()) {
+                                onChunk.accept(text);
+                            }
                         }
-                        onComplete.run();
-                    });
+                    },
+                    onError,
+                    onComplete);
 
-            return () -> future.cancel(true);
+            return exchange::cancel;
 
         } catch (Exception e) {
             onError.accept(e);
@@ -103,6 +130,29 @@ public class GeminiChatService implements AiChatService {
         }
     }
 
+    /**
+     * Respuesta con {@code functionCall}: el texto y las llamadas se emiten en
+     * el orden de las partes.
+     */
+    private static void readParts(String json, Consumer<String> onChunk) {
+        ToolCallAssembler toolCalls = new ToolCallAssembler(onChunk);
+        Object parts = JsonParser.path(JsonParser.parseObject(json), "candidates", 0, "content", "parts");
+        if (!(parts instanceof List<?> list)) {
+            return;
+        }
+        for (Object part : list) {
+            if (JsonParser.path(part, "text") instanceof String text && !text.isBlank()) {
+                onChunk.accept(text);
+            }
+            Object call = JsonParser.path(part, "functionCall");
+            if (call != null) {
+                toolCalls.complete(
+                        JsonParser.path(call, "name") instanceof String name ? name : null,
+                        JsonParser.path(call, "args"));
+            }
+        }
+    }
+
     private String extractText(String json) {
         if (json == null || json.isEmpty()) {
             return "";
@@ -177,6 +227,27 @@ public class GeminiChatService implements AiChatService {
         return result.toString();
     }
 
+    /**
+     * Abre la conexión con la base URL para dejarla en el pool.
+     */
+    @Override
+    public CompletableFuture<Void> warmUp() {
+        String base = trimToNull(CredentialsService.getGeminiBaseUrl());
+        if (base == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Configura la base URL de Gemini"));
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(base))
+                    .timeout(WARM_UP_TIMEOUT)
+                    .GET()
+                    .build();
+            return client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(r -> null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     @Override
     public void setModel(String model) {
         this.userModel = trimToNull(model);
@@ -206,6 +277,10 @@ public class GeminiChatService implements AiChatService {
         return trimToNull(CredentialsService.getGeminiDefaultModel());
     }
 
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
     private static String trimToNull(String value) {
         if (value == null) {
             return null;
@@ -0,0 +1,251 @@
+package com.aihelper.ai;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+
+/**
+ * Petición con cobertura: si el proveedor principal no ha producido el primer
+ * token dentro de su percentil de TTFT, se lanza la misma petición contra un
+ * proveedor/modelo secundario. Gana el primer stream que emite texto y el otro
+ * se cancela. Si el principal falla antes de emitir nada, el secundario sale
+ * de inmediato.
+ *
+ * El percentil y el temporizador se miden desde el mismo punto, la entrada
+ * en la cola del planificador (ver {@link ScheduledChatService}): si el
+ * principal está encolado, la espera cuenta en ambos.
+ */
+public class HedgedChatService extends ForwardingChatService {
+
+    private static final long DEFAULT_DEADLINE_MILLIS = 4_000;
+    private static final long MIN_DEADLINE_MILLIS = 300;
+
+    private final String primaryKey;
+    private final AiChatService secondary;
+    private final String secondaryKey;
+    private final int percentile;
+
+    public HedgedChatService(String primaryKey, AiChatService primary,
+            String secondaryKey, AiChatService secondary, int percentile) {
+        super(primary);
+        this.primaryKey = primaryKey;
+        this.secondary = secondary;
+        this.secondaryKey = secondaryKey;
+        this.percentile = percentile;
+    }
+
+    @Override
+    public void setPriority(RequestPriority priority) {
+        super.setPriority(priority);
+        secondary.setPriority(priority);
+    }
+
+    @Override
+    public Runnable sendMessageStreaming(
+            String prompt,
+            String context,
+            Consumer<String> onChunk,
+            Consumer<Throwable> onError,
+            Runnable onComplete) {
+
+        long deadline = Math.max(MIN_DEADLINE_MILLIS,
+                TtftTracker.forModel(primaryKey, currentModel()).percentile(percentile, DEFAULT_DEADLINE_MILLIS));
+        Race race = new Race(prompt, context, onChunk, onError, onComplete);
+        race.start(deadline);
+        return race::cancel;
+    }
+
+    private final class Race {
+
+        private final String prompt;
+        private final String context;
+        private final Consumer<String> onChunk;
+        private final Consumer<Throwable> onError;
+        private final Runnable onComplete;
+
+        private Leg primaryLeg;
+        private Leg secondaryLeg;
+        private Leg winner;
+        private ScheduledFuture<?> hedgeTimer;
+        private Throwable lastError;
+        private boolean finished;
+
+        private Race(String prompt, String context,
+                Consumer<String> onChunk, Consumer<Throwable> onError, Runnable onComplete) {
+            this.prompt = prompt;
+            this.context = context;
+            this.onChunk = onChunk;
+            this.onError = onError;
+            this.onComplete = onComplete;
+        }
+
+        private void start(long deadlineMillis) {
+            Leg leg = new Leg();
+            synchronized (this) {
+                primaryLeg = leg;
+            }
+            leg.launch(delegate);
+            synchronized (this) {
+                if (!finished && winner == null && secondaryLeg == null) {
+                    hedgeTimer = DelayedTasks.schedule(this::hedge, deadlineMillis);
+                }
+            }
+        }
+
+        private void hedge() {
+            Leg leg;
+            synchronized (this) {
+                if (finished || winner != null || secondaryLeg != null) {
+                    return;
+                }
+                leg = new Leg();
+                secondaryLeg = leg;
+            }
+            ProviderMetrics.increment(primaryKey, ProviderMetrics.HEDGES_FIRED);
+            leg.launch(secondary);
+        }
+
+        private void onLegChunk(Leg leg, String chunk) {
+            Leg loser = null;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                if (winner == null) {
+                    winner = leg;
+                    loser = leg == primaryLeg ? secondaryLeg : primaryLeg;
+                    if (hedgeTimer != null) {
+                        hedgeTimer.cancel(false);
+                    }
+                    if (leg == secondaryLeg) {
+                        ProviderMetrics.increment(secondaryKey, ProviderMetrics.HEDGES_WON);
+                    }
+                } else if (winner != leg) {
+                    return;
+                }
+            }
+            if (loser != null) {
+                loser.cancel();
+            }
+            onChunk.accept(chunk);
+        }
+
+        private void onLegDone(Leg leg, Throwable error) {
+            boolean failover = false;
+            boolean complete = false;
+            Throwable report = null;
+            synchronized (this) {
+                if (finished || leg.cancelled) {
+                    return;
+                }
+                leg.done = true;
+                if (winner == leg) {
+                    complete = true;
+                    report = error;
+                } else if (winner == null) {
+                    if (error != null) {
+                        lastError = error;
+                    }
+                    if (leg == primaryLeg && secondaryLeg == null && error != null) {
+                        failover = true;
+                    } else if (!isAlive(primaryLeg) && !isAlive(secondaryLeg)) {
+                        complete = true;
+                        report = lastError;
+                    }
+                }
+                if (complete) {
+                    finished = true;
+                    if (hedgeTimer != null) {
+                        hedgeTimer.cancel(false);
+                    }
+                }
+            }
+            if (failover) {
+                hedge();
+                return;
+            }
+            if (complete) {
+                if (report != null) {
+                    onError.accept(report);
+                }
+                onComplete.run();
+            }
+        }
+
+        private boolean isAlive(Leg leg) {
+            return leg != null && !leg.done && !leg.cancelled;
+        }
+
+        private void cancel() {
+            Leg first;
+            Leg second;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                first = primaryLeg;
+                second = secondaryLeg;
+                if (hedgeTimer != null) {
+                    hedgeTimer.cancel(false);
+                }
+            }
+            if (first != null) {
+                first.cancel();
+            }
+            if (second != null) {
+                second.cancel();
+            }
+        }
+
+        private final class Leg {
+
+            private Runnable cancelHandle;
+            private boolean cancelled;
+            private boolean done;
+            private Throwable error;
+
+            private void launch(AiChatService service) {
+                Runnable handle = service.sendMessageStreaming(
+                        prompt,
+                        context,
+                        chunk -> onLegChunk(this, chunk),
+                        err -> {
+                            synchronized (Race.this) {
+                                if (error == null) {
+                                    error = err;
+                                }
+                            }
+                        },
+                        () -> {
+                            Throwable failure;
+                            synchronized (Race.this) {
+                                failure = error;
+                            }
+                            onLegDone(this, failure);
+                        });
+                boolean cancelNow;
+                synchronized (Race.this) {
+                    cancelHandle = handle;
+                    cancelNow = cancelled;
+                }
+                if (cancelNow) {
+                    handle.run();
+                }
+            }
+
+            private void cancel() {
+                Runnable handle;
+                synchronized (Race.this) {
+                    if (cancelled || done) {
+                        return;
+                    }
+                    cancelled = true;
+                    handle = cancelHandle;
+                }
+                if (handle != null) {
+                    handle.run();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.aihelper.ai;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Un {@link HttpClient} compartido por proveedor. Todas las instancias de un
+ * mismo proveedor (vista, perfiles de equipo, cobertura) reutilizan su pool de
+ * conexiones, de modo que una conexión abierta al calentar sirve a la primera
+ * petición real. El cliente se recrea sólo si cambia el plazo de conexión.
+ */
+final class HttpClients {
+
+    private record Entry(int connectSeconds, HttpClient client) {}
+
+    private static final Map<String, Entry> CLIENTS = new ConcurrentHashMap<>();
+
+    private HttpClients() {}
+
+    static HttpClient forProvider(String providerKey) {
+        int connectSeconds = StreamDeadlines.forProvider(providerKey).connectSeconds();
+        return CLIENTS.compute(providerKey, (key, entry) -> entry != null && entry.connectSeconds() == connectSeconds
+                ? entry
+                : new Entry(connectSeconds, build(connectSeconds))).client();
+    }
+
+    private static HttpClient build(int connectSeconds) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (connectSeconds > 0) {
+            builder.connectTimeout(Duration.ofSeconds(connectSeconds));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.aihelper.ai;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+import org.eclipse.core.runtime.IPath;
+
+import com.aihelper.Activator;
+
+/**
+ * Catálogo de modelos por proveedor (y endpoint), persistido en el directorio
+ * de estado del plugin.
+ *
+ * Se sirve lo que haya en caché de inmediato, aunque esté caducado, y se
+ * revalida en segundo plano; si la lista cambia se avisa a los listeners.
+ * Sin caché se espera a la consulta y, si falla, al catálogo de reserva del
+ * propio servicio. Un fallo nunca borra una lista buena.
+ */
+public final class ModelCatalog {
+
+    private static final ModelCatalog DEFAULT = new ModelCatalog();
+    private static final String FILE_NAME = "model-catalog.properties";
+    private static final String FETCHED_SUFFIX = ".fetchedAt";
+    private static final long REVALIDATE_AFTER_MILLIS = 60_000;
+
+    private final Map<String, List<String>> models = new ConcurrentHashMap<>();
+    private final Map<String, Long> fetchedAt = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<List<String>>> inFlight = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, List<String>>> listeners = new CopyOnWriteArrayList<>();
+    private boolean loaded;
+
+    private ModelCatalog() {}
+
+    public static ModelCatalog getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Recibe (clave de proveedor, nueva lista) cuando una revalidación cambia
+     * el catálogo. Se invoca fuera del hilo de UI.
+     */
+    public void addListener(BiConsumer<String, List<String>> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(BiConsumer<String, List<String>> listener) {
+        listeners.remove(listener);
+    }
+
+    CompletableFuture<List<String>> models(String providerKey, String endpoint, AiChatService source) {
+        ensureLoaded();
+        String key = providerKey + "|" + (endpoint == null ? "" : endpoint.trim());
+        List<String> cached = models.get(key);
+        if (cached != null) {
+            if (System.currentTimeMillis() - fetchedAt.getOrDefault(key, 0L) > REVALIDATE_AFTER_MILLIS) {
+                revalidate(providerKey, key, source);
+            }
+            return CompletableFuture.completedFuture(cached);
+        }
+        return revalidate(providerKey, key, source)
+                .exceptionallyAsync(error -> source.listModels());
+    }
+
+    private CompletableFuture<List<String>> revalidate(String providerKey, String key, AiChatService source) {
+        CompletableFuture<List<String>> pending = inFlight.get(key);
+        if (pending != null) {
+            return pending;
+        }
+        CompletableFuture<List<String>> started = new CompletableFuture<>();
+        pending = inFlight.putIfAbsent(key, started);
+        if (pending != null) {
+            return pending;
+        }
+        source.listModelsAsync().whenComplete((fresh, error) -> {
+            inFlight.remove(key, started);
+            if (error != null) {
+                started.completeExceptionally(error);
+                return;
+            }
+            List<String> list = List.copyOf(fresh);
+            List<String> previous = models.put(key, list);
+            fetchedAt.put(key, System.currentTimeMillis());
+            save();
+            if (previous != null && !previous.equals(list)) {
+                listeners.forEach(listener -> listener.accept(providerKey, list));
+            }
+            started.complete(list);
+        });
+        return started;
+    }
+
+    private synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        File file = resolveFile();
+        if (file == null || !file.exists()) {
+            return;
+        }
+        Properties props = new Properties();
+        try (FileReader reader = new FileReader(file, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        } catch (Exception ignored) {
+            // Caché corrupta o ilegible: se reconstruye con la próxima consulta
+            return;
+        }
+        for (String name : props.stringPropertyNames()) {
+            if (name.endsWith(FETCHED_SUFFIX)) {
+                continue;
+            }
+            models.put(name, split(props.getProperty(name)));
+            try {
+                fetchedAt.put(name, Long.parseLong(props.getProperty(name + FETCHED_SUFFIX, "0")));
+            } catch (NumberFormatException e) {
+                fetchedAt.put(name, 0L);
+            }
+        }
+    }
+
+    private synchronized void save() {
+        File file = resolveFile();
+        if (file == null) {
+            return;
+        }
+        Properties props = new Properties();
+        models.forEach((key, list) -> {
+            props.setProperty(key, String.join("\n", list));
+            props.setProperty(key + FETCHED_SUFFIX, String.valueOf(fetchedAt.getOrDefault(key, 0L)));
+        });
+        try (FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8, false)) {
+            props.store(writer, "AI Helper - catálogo de modelos");
+        } catch (Exception ignored) {
+            // La caché es una optimización: no debe romper nada si no se puede escribir
+        }
+    }
+
+    private static File resolveFile() {
+        Activator activator = Activator.getDefault();
+        if (activator == null) {
+            return null;
+        }
+        IPath state = activator.getStateLocation();
+        return state == null ? null : state.append(FILE_NAME).toFile();
+    }
+
+    private static List<String> split(String value) {
+        return Arrays.stream(value.split("\n")).filter(s -> !s.isBlank()).toList();
+    }
+}
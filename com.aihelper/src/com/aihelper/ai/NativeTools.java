@@ -0,0 +1,114 @@
+package com.aihelper.ai;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import com.aihelper.preferences.CredentialsService;
+
+/**
+ * Decide cuándo declarar las acciones como herramientas nativas y vuelve al
+ * protocolo de texto cuando el modelo no las admite.
+ *
+ * Si el proveedor rechaza la petición porque el modelo no admite
+ * herramientas (400 o 422 con uno de los mensajes conocidos), se recuerda
+ * el modelo hasta reiniciar Eclipse y la misma petición se repite sin ellas,
+ * sin que la vista vea el error. El prompt de
+ * sistema sigue describiendo las líneas {@code [ACTION:...]}, así que esos
+ * modelos siguen pudiendo pedir acciones.
+ */
+final class NativeTools {
+
+    /**
+     * Arranca un intento de streaming con o sin herramientas y devuelve su
+     * handle de cancelación.
+     */
+    @FunctionalInterface
+    interface Attempt {
+        Runnable start(boolean withTools, Consumer<Throwable> onError, Runnable onComplete);
+    }
+
+    private static final Set<String> UNSUPPORTED = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Mensajes con los que los proveedores dicen que el modelo no admite
+     * herramientas (Ollama "does not support tools", DeepSeek "does not
+     * support Function Calling", Gemini "Function calling is not enabled",
+     * vLLM "--enable-auto-tool-choice"). Un 400 por un esquema mal formado
+     * menciona las herramientas pero no encaja y se muestra como error.
+     */
+    private static final Pattern UNSUPPORTED_MESSAGE = Pattern.compile(
+            "(?:does not|doesn't) support (?:tools|tool use|tool calling|function calling|functions)"
+            + "|(?:tools|tool use|tool calling|function calling) (?:is|are) not (?:supported|enabled|available)"
+            + "|enable-auto-tool-choice");
+
+    private NativeTools() {}
+
+    static boolean enabledFor(String provider, String model) {
+        return CredentialsService.isNativeToolsEnabled() && !UNSUPPORTED.contains(key(provider, model));
+    }
+
+    /**
+     * Ejecuta {@code attempt} con herramientas si procede y repite una vez sin
+     * ellas si el modelo las rechaza.
+     */
+    static Runnable stream(String provider, String model, Attempt attempt,
+            Consumer<Throwable> onError, Runnable onComplete) {
+
+        if (!enabledFor(provider, model)) {
+            return attempt.start(false, onError, onComplete);
+        }
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicBoolean rejected = new AtomicBoolean();
+        AtomicReference<Runnable> current = new AtomicReference<>();
+        Runnable first = attempt.start(true,
+                err -> {
+                    if (isToolRejection(err)) {
+                        UNSUPPORTED.add(key(provider, model));
+                        rejected.set(true);
+                    } else {
+                        onError.accept(err);
+                    }
+                },
+                () -> {
+                    if (!rejected.get()) {
+                        onComplete.run();
+                        return;
+                    }
+                    if (cancelled.get()) {
+                        return;
+                    }
+                    current.set(attempt.start(false, onError, onComplete));
+                    if (cancelled.get()) {
+                        current.get().run();
+                    }
+                });
+        // Si el primer intento falló de forma síncrona, el reintento ya ocupa su lugar
+        current.compareAndSet(null, first);
+
+        return () -> {
+            Runnable cancel = current.get();
+            if (cancelled.compareAndSet(false, true) && cancel != null) {
+                cancel.run();
+            }
+        };
+    }
+
+    private static boolean isToolRejection(Throwable error) {
+        if (!(error instanceof ProviderHttpException http)) {
+            return false;
+        }
+        int status = http.getStatusCode();
+        String message = http.getMessage() == null ? "" : http.getMessage().toLowerCase(Locale.ROOT);
+        return (status == 400 || status == 422) && UNSUPPORTED_MESSAGE.matcher(message).find();
+    }
+
+    private static String key(String provider, String model) {
+        return provider + "|" + model;
+    }
+}
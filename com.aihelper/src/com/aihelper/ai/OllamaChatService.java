@@ -4,21 +4,27 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+import com.aihelper.ai.util.JsonBody;
 import com.aihelper.ai.util.JsonHelper;
+import com.aihelper.ai.util.JsonParser;
+import com.aihelper.ai.util.JsonWriter;
 import com.aihelper.preferences.CredentialsService;
 
 public class OllamaChatService implements AiChatService {
 
     private static final String DEFAULT_BASE_URL = "http://localhost:11434";
+    private static final Duration LOAD_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration CATALOG_TIMEOUT = Duration.ofSeconds(5);
 
     private String model = "llama3.1:8b";
-    private final HttpClient client = HttpClient.newHttpClient();
+    private final HttpClient client = HttpClients.forProvider("Ollama");
 
     @Override
     public Runnable sendMessageStreaming(
@@ -28,57 +34,70 @@ public class OllamaChatService implements AiChatService {
             Consumer<Throwable> onError,
             Runnable onComplete) {
 
+        String chatModel = model;
+        // Una respuesta terminada sin error deja el modelo cargado
+        AtomicBoolean failed = new AtomicBoolean();
+        return NativeTools.stream("Ollama", chatModel,
+                (withTools, errorSink, completion) -> stream(
+                        chatModel, prompt, context, withTools, onChunk, errorSink, completion),
+                e -> {
+                    failed.set(true);
+                    onError.accept(e);
+                },
+                () -> {
+                    if (!failed.get()) {
+                        OllamaResidency.getDefault().markLoaded(chatModel);
+                    }
+                    onComplete.run();
+                });
+    }
+
+    private Runnable stream(
+            String chatModel,
+            String prompt,
+            String context,
+            boolean withTools,
+            Consumer<String> onChunk,
+            Consumer<Throwable> onError,
+            Runnable onComplete) {
+
         try {
-                        String chatUrl = endpoint("/api/chat");
-            String payload = """
-            {
-              "model": "%s",
-                            "messages": [
-                                {"role": "system", "content": "%s"},
-                                {"role": "user", "content": "%s"}
-                            ],
-              "stream": true
+            String chatUrl = endpoint("/api/chat");
+            JsonWriter json = JsonWriter.create()
+                    .beginObject()
+                    .name("model").value(chatModel)
+                    .name("messages").beginArray()
+                    .beginObject().name("role").value("system").name("content").value(orEmpty(context)).endObject()
+                    .beginObject().name("role").value("user").name("content").value(orEmpty(prompt)).endObject()
+                    .endArray()
+                    .name("stream").value(true);
+            if (withTools) {
+                ActionTools.writeTo(json.name("tools"), ActionTools.Dialect.OPENAI);
             }
-            """.formatted(
-                    model,
-                    JsonHelper.escape(context),
-                    JsonHelper.escape(prompt)
-            );
+            OllamaRuntimeOptions.forModel(chatModel).writeTo(json);
+            JsonBody payload = json.endObject().toBody();
 
-                HttpRequest request = HttpRequest.newBuilder()
+            HttpRequest.Builder builder = HttpRequest.newBuilder()
                     .uri(URI.create(chatUrl))
-                    .header("Content-Type", "application/json; charset=UTF-8")
-                    .POST(HttpRequest.BodyPublishers.ofString(payload))
-                    .build();
-
-            var future = client.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
-                    .thenAccept(response -> {
-                        if (response.statusCode() >= 400) {
-                            String errorBody = safeCollect(response.body());
-                            onError.accept(new IllegalStateException(
-                                    "Ollama respondió con estado " + response.statusCode()
-                                            + messageSuffix(errorBody)));
-                            return;
-                        }
-
-                        try (Stream<String> lines = response.body()) {
-                            lines.forEach(line -> {
-                                if (line.contains("\"message\"")) {
-                                    for (String chunk : JsonHelper.extractAllValues(line, "content")) {
-                                        onChunk.accept(chunk);
-                                    }
-                                }
-                            });
-                        }
-                    })
-                    .whenComplete((r, ex) -> {
-                        if (ex != null) {
-                            onError.accept(ex);
+                    .header("Content-Type", "application/json; charset=UTF-8");
+            JsonBody body = RequestCompression.apply("Ollama", chatUrl, payload, builder);
+            HttpRequest request = builder.POST(body).build();
+
+            ToolCallAssembler toolCalls = new ToolCallAssembler(onChunk);
+            StreamingExchange exchange = StreamingExchange.start(client, request, body, "Ollama",
+                    line -> {
+                        if (line.contains("\"tool_calls\"")) {
+                            readToolCalls(line, toolCalls, onChunk);
+                        } else if (line.contains("\"message\"")) {
+                            for (String chunk : JsonHelper.extractAllValues(line, "content")) {
+                                onChunk.accept(chunk);
+                            }
                         }
-                        onComplete.run();
-                    });
+                    },
+                    onError,
+                    onComplete);
 
-            return () -> future.cancel(true);
+            return exchange::cancel;
 
         } catch (Exception e) {
             onError.accept(e);
@@ -87,20 +106,21 @@ public class OllamaChatService implements AiChatService {
         }
     }
 
-    private String safeCollect(Stream<String> lines) {
-        if (lines == null) return "";
-        try (Stream<String> closeable = lines) {
-            return closeable.collect(Collectors.joining("\n"));
-        } catch (Exception e) {
-            return "";
+    /**
+     * Ollama envía cada llamada completa, con los argumentos ya como objeto.
+     */
+    private static void readToolCalls(String line, ToolCallAssembler toolCalls, Consumer<String> onChunk) {
+        Object message = JsonParser.path(JsonParser.parseObject(line), "message");
+        if (JsonParser.path(message, "content") instanceof String text && !text.isEmpty()) {
+            onChunk.accept(text);
         }
-    }
-
-    private String messageSuffix(String errorBody) {
-        if (errorBody == null || errorBody.isBlank()) {
-            return "";
+        if (JsonParser.path(message, "tool_calls") instanceof List<?> calls) {
+            for (Object call : calls) {
+                toolCalls.complete(
+                        JsonParser.path(call, "function", "name") instanceof String name ? name : null,
+                        JsonParser.path(call, "function", "arguments"));
+            }
         }
-        return ": " + errorBody;
     }
 
     @Override
@@ -131,19 +151,63 @@ public class OllamaChatService implements AiChatService {
     @Override
     public List<String> listModels() {
         try {
-            String tagsUrl = endpoint("/api/tags");
+            return listModelsAsync().join();
+        } catch (Exception e) {
+            return List.of(model);
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<String>> listModelsAsync() {
+        try {
             HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(tagsUrl))
+                    .uri(URI.create(endpoint("/api/tags")))
+                    .timeout(CATALOG_TIMEOUT)
                     .GET()
                     .build();
+            return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .thenApply(response -> {
+                        if (response.statusCode() >= 400) {
+                            throw new ProviderHttpException(
+                                    "Ollama", response.statusCode(), response.body(), response.headers());
+                        }
+                        return JsonHelper.extractArrayField(response.body(), "name");
+                    });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-            HttpResponse<String> response =
-                    client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            return JsonHelper.extractArrayField(response.body(), "name");
-
-        } catch (Exception e) {
-            return List.of(model);
+    /**
+     * Carga el modelo en memoria con una petición sin prompt (cero tokens) a
+     * {@code /api/generate}; de paso deja la conexión en el pool.
+     */
+    @Override
+    public CompletableFuture<Void> warmUp() {
+        try {
+            String loadModel = model;
+            JsonWriter json = JsonWriter.create()
+                    .beginObject()
+                    .name("model").value(loadModel);
+            // Mismas opciones que el chat: un num_ctx distinto obligaría a Ollama a recargar
+            OllamaRuntimeOptions.forModel(loadModel).writeTo(json);
+            JsonBody payload = json.endObject().toBody();
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(endpoint("/api/generate")))
+                    .header("Content-Type", "application/json; charset=UTF-8")
+                    .timeout(LOAD_TIMEOUT)
+                    .POST(payload)
+                    .build();
+            return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .thenAccept(response -> {
+                        if (response.statusCode() >= 400) {
+                            throw new ProviderHttpException(
+                                    "Ollama", response.statusCode(), response.body(), response.headers());
+                        }
+                        OllamaResidency.getDefault().markLoaded(loadModel);
+                    });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
@@ -152,7 +216,7 @@ public class OllamaChatService implements AiChatService {
         this.model = model;
     }
 
-    private String endpoint(String path) {
+    static String endpoint(String path) {
         String base = trimToNull(CredentialsService.getOllamaBaseUrl());
         String effectiveBase = base == null ? DEFAULT_BASE_URL : base;
         String sanitizedBase = stripTrailingSlash(effectiveBase);
@@ -168,6 +232,10 @@ public class OllamaChatService implements AiChatService {
         return result.isEmpty() ? DEFAULT_BASE_URL : result;
     }
 
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
     private static String trimToNull(String value) {
         if (value == null) {
             return null;
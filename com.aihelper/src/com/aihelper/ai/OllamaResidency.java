@@ -0,0 +1,133 @@
+package com.aihelper.ai;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import com.aihelper.ai.util.JsonHelper;
+
+/**
+ * Modelos que Ollama tiene cargados en memoria según {@code /api/ps}.
+ *
+ * Sirve para ordenar las peticiones del modo equipo: primero las que usan un
+ * modelo ya residente y, después, agrupadas por modelo, de modo que con una
+ * sola GPU (o sólo CPU) cada modelo se cargue una vez en lugar de alternar
+ * descargas y recargas. La consulta es asíncrona y se cachea unos segundos.
+ */
+public final class OllamaResidency {
+
+    private static final OllamaResidency DEFAULT = new OllamaResidency();
+    private static final long STALE_AFTER_MILLIS = 5_000;
+    private static final Duration PS_TIMEOUT = Duration.ofSeconds(3);
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Set<String> loaded = Set.of();
+    private volatile long refreshedAt;
+
+    private OllamaResidency() {}
+
+    public static OllamaResidency getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Última lista conocida de modelos cargados. Si está caducada lanza una
+     * actualización en segundo plano, pero no la espera.
+     */
+    public Set<String> loadedModels() {
+        if (System.nanoTime() - refreshedAt > TimeUnit.MILLISECONDS.toNanos(STALE_AFTER_MILLIS)) {
+            refresh();
+        }
+        return loaded;
+    }
+
+    public void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(OllamaChatService.endpoint("/api/ps")))
+                    .timeout(PS_TIMEOUT)
+                    .GET()
+                    .build();
+            HttpClients.forProvider("Ollama")
+                    .sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        if (error == null && response.statusCode() < 400) {
+                            loaded = Set.copyOf(JsonHelper.extractArrayField(response.body(), "name"));
+                        }
+                        refreshedAt = System.nanoTime();
+                        refreshing.set(false);
+                    });
+        } catch (RuntimeException e) {
+            refreshedAt = System.nanoTime();
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * Anota un modelo como residente sin esperar a la próxima consulta (tras
+     * el warm-up o una respuesta de chat terminada sin error).
+     */
+    void markLoaded(String model) {
+        if (model == null || model.isBlank() || loaded.contains(model)) {
+            return;
+        }
+        Set<String> updated = new LinkedHashSet<>(loaded);
+        updated.add(model);
+        loaded = Set.copyOf(updated);
+    }
+
+    /**
+     * Ordena {@code items} para minimizar recargas: primero los que usan
+     * {@code firstModel} (el que va a estar cargado de todos modos), luego los
+     * de modelos ya residentes y al final el resto, agrupados por modelo y
+     * respetando el orden original dentro de cada grupo. Los elementos cuyo
+     * modelo es {@code null} (no son de Ollama) no compiten y van primero.
+     */
+    public <T> List<T> order(List<T> items, Function<T, String> modelOf, String firstModel) {
+        Set<String> resident = loadedModels();
+        Map<String, Integer> groupOrder = new LinkedHashMap<>();
+        for (T item : items) {
+            String model = modelOf.apply(item);
+            if (model != null) {
+                groupOrder.putIfAbsent(model, groupOrder.size());
+            }
+        }
+        List<T> ordered = new ArrayList<>(items);
+        ordered.sort(Comparator
+                .comparingInt((T item) -> rank(modelOf.apply(item), resident, firstModel))
+                .thenComparingInt(item -> {
+                    String model = modelOf.apply(item);
+                    return model == null ? -1 : groupOrder.get(model);
+                }));
+        return ordered;
+    }
+
+    private static int rank(String model, Set<String> resident, String firstModel) {
+        if (model == null || model.equals(firstModel)) {
+            return 0;
+        }
+        return isResident(model, resident) ? 1 : 2;
+    }
+
+    private static boolean isResident(String model, Set<String> resident) {
+        if (resident.contains(model)) {
+            return true;
+        }
+        // /api/ps devuelve el nombre con etiqueta (":latest" si no se indicó)
+        return !model.contains(":") && resident.contains(model + ":latest");
+    }
+}
@@ -0,0 +1,128 @@
+package com.aihelper.ai;
+
+import java.util.regex.Pattern;
+
+import com.aihelper.ai.util.JsonWriter;
+import com.aihelper.preferences.CredentialsService;
+
+/**
+ * Opciones de ejecución que se envían a Ollama con cada petición del modelo:
+ * {@code keep_alive} y {@code options.num_ctx/num_predict/num_thread}.
+ *
+ * Los valores generales salen de preferencias y se pueden sobrescribir por
+ * modelo con el formato {@code modelo: clave=valor, clave=valor; modelo2: ...}.
+ * Un nombre sin etiqueta ({@code llama3.1}) vale para todas sus variantes.
+ * Un 0 o un valor vacío significa "no enviar" (se usa el de Ollama).
+ */
+record OllamaRuntimeOptions(String keepAlive, int numCtx, int numPredict, int numThread) {
+
+    private static final Pattern INTEGER = Pattern.compile("-?\\d+");
+
+    static OllamaRuntimeOptions forModel(String model) {
+        OllamaRuntimeOptions defaults = new OllamaRuntimeOptions(
+                CredentialsService.getOllamaKeepAlive(),
+                CredentialsService.getOllamaNumCtx(),
+                CredentialsService.getOllamaNumPredict(),
+                CredentialsService.getOllamaNumThread());
+        return defaults.withOverrides(CredentialsService.getOllamaModelOptions(), model);
+    }
+
+    /**
+     * Aplica la entrada de {@code overrides} que corresponde al modelo: la de
+     * nombre exacto si existe, si no la del nombre sin etiqueta.
+     */
+    OllamaRuntimeOptions withOverrides(String overrides, String model) {
+        if (overrides == null || overrides.isBlank() || model == null || model.isBlank()) {
+            return this;
+        }
+        String exact = model.trim();
+        int colon = exact.indexOf(':');
+        String family = colon < 0 ? exact : exact.substring(0, colon);
+        String exactEntry = null;
+        String familyEntry = null;
+        for (String entry : overrides.split(";")) {
+            int sep = settingsSeparator(entry);
+            if (sep < 0) {
+                continue;
+            }
+            String name = entry.substring(0, sep).trim();
+            if (name.equalsIgnoreCase(exact)) {
+                exactEntry = entry.substring(sep + 1);
+            } else if (name.equalsIgnoreCase(family)) {
+                familyEntry = entry.substring(sep + 1);
+            }
+        }
+        String settings = exactEntry != null ? exactEntry : familyEntry;
+        return settings == null ? this : apply(settings);
+    }
+
+    /**
+     * Escribe {@code keep_alive} y {@code options} en el objeto JSON abierto.
+     */
+    void writeTo(JsonWriter json) {
+        if (keepAlive != null && !keepAlive.isBlank()) {
+            String value = keepAlive.trim();
+            json.name("keep_alive");
+            if (INTEGER.matcher(value).matches()) {
+                json.value(Long.parseLong(value));
+            } else {
+                json.value(value);
+            }
+        }
+        if (numCtx > 0 || numPredict > 0 || numThread > 0) {
+            json.name("options").beginObject();
+            if (numCtx > 0) {
+                json.name("num_ctx").value(numCtx);
+            }
+            if (numPredict > 0) {
+                json.name("num_predict").value(numPredict);
+            }
+            if (numThread > 0) {
+                json.name("num_thread").value(numThread);
+            }
+            json.endObject();
+        }
+    }
+
+    /**
+     * El nombre del modelo puede llevar ':' (etiqueta), así que el separador
+     * entre nombre y ajustes es el último ':' antes del primer '='.
+     */
+    private static int settingsSeparator(String entry) {
+        int firstEquals = entry.indexOf('=');
+        return firstEquals < 0 ? -1 : entry.lastIndexOf(':', firstEquals);
+    }
+
+    private OllamaRuntimeOptions apply(String settings) {
+        String keep = keepAlive;
+        int ctx = numCtx;
+        int predict = numPredict;
+        int thread = numThread;
+        for (String pair : settings.split(",")) {
+            int eq = pair.indexOf('=');
+            if (eq < 0) {
+                continue;
+            }
+            String key = pair.substring(0, eq).trim().toLowerCase();
+            String value = pair.substring(eq + 1).trim();
+            switch (key) {
+                case "keep_alive" -> keep = value;
+                case "num_ctx" -> ctx = parseInt(value, ctx);
+                case "num_predict" -> predict = parseInt(value, predict);
+                case "num_thread" -> thread = parseInt(value, thread);
+                default -> {
+                    // clave desconocida: se ignora
+                }
+            }
+        }
+        return new OllamaRuntimeOptions(keep, ctx, predict, thread);
+    }
+
+    private static int parseInt(String value, int fallback) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
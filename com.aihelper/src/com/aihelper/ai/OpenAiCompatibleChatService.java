@@ -4,20 +4,24 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+import com.aihelper.ai.util.JsonBody;
 import com.aihelper.ai.util.JsonHelper;
+import com.aihelper.ai.util.JsonParser;
+import com.aihelper.ai.util.JsonWriter;
 
 public abstract class OpenAiCompatibleChatService implements AiChatService {
 
-    private final HttpClient client = HttpClient.newHttpClient();
+    private static final Duration WARM_UP_TIMEOUT = Duration.ofSeconds(10);
+
     private final String defaultModel;
     private String model;
 
@@ -33,6 +37,14 @@ public abstract class OpenAiCompatibleChatService implements AiChatService {
         String effective = effectiveModel();
         return effective == null ? List.of() : List.of(effective);
     }
+
+    /**
+     * Consulta asíncrona del catálogo; por defecto la lista fija de
+     * {@link #catalogModels()}. Puede terminar con error si el proveedor no responde.
+     */
+    protected CompletableFuture<List<String>> catalogModelsAsync() {
+        return CompletableFuture.completedFuture(catalogModels());
+    }
     protected String completionsPath() { return "/chat/completions"; }
     protected int maxCompletionTokens() { return 512; }
 
@@ -65,64 +77,75 @@ public abstract class OpenAiCompatibleChatService implements AiChatService {
             return () -> {};
         }
 
-                try {
-                        int maxTokens = Math.max(64, maxCompletionTokens());
-                        String payload = """
-                        {
-                            "model": "%s",
-                            "stream": true,
-                            "max_tokens": %d,
-                            "messages": [
-                                {"role":"system","content":"%s"},
-                                {"role":"user","content":"%s"}
-                            ]
-                        }
-                        """.formatted(
-                                        chatModel,
-                                        maxTokens,
-                                        JsonHelper.escape(context),
-                                        JsonHelper.escape(prompt)
-                        );
-
-                        HttpRequest request = HttpRequest.newBuilder()
-                                        .uri(URI.create(endpoint))
-                                        .header("Authorization", "Bearer " + key)
-                                        .header("Content-Type", "application/json")
-                                        .POST(HttpRequest.BodyPublishers.ofString(payload))
-                                        .build();
-
-            var future = client.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
-                    .thenAccept(response -> {
-                        if (response.statusCode() >= 400) {
-                            String errorBody = safeCollect(response.body());
-                            onError.accept(new IllegalStateException(
-                                    providerName() + " respondió con estado " + response.statusCode()
-                                            + messageSuffix(errorBody)));
-                            return;
-                        }
+        return NativeTools.stream(providerName(), chatModel,
+                (withTools, errorSink, completion) -> stream(
+                        key, endpoint, chatModel, prompt, context, withTools, onChunk, errorSink, completion),
+                onError,
+                onComplete);
+    }
 
-                        try (Stream<String> lines = response.body()) {
-                            lines.forEach(line -> {
-                                if (!line.startsWith("data: ") || line.contains("[DONE]")) {
-                                    return;
-                                }
-                                List<String> contents = JsonHelper.extractAllValues(line, "content");
-                                for (String c : contents) {
-                                    if (c != null && !c.isEmpty()) {
-                                        onChunk.accept(c);
-                                    }
+    private Runnable stream(
+            String key,
+            String endpoint,
+            String chatModel,
+            String prompt,
+            String context,
+            boolean withTools,
+            Consumer<String> onChunk,
+            Consumer<Throwable> onError,
+            Runnable onComplete) {
+
+        try {
+            int maxTokens = Math.max(64, maxCompletionTokens());
+            JsonWriter json = JsonWriter.create()
+                    .beginObject()
+                    .name("model").value(chatModel)
+                    .name("stream").value(true)
+                    .name("max_tokens").value(maxTokens)
+                    .name("messages").beginArray()
+                    .beginObject().name("role").value("system").name("content").value(orEmpty(context)).endObject()
+                    .beginObject().name("role").value("user").name("content").value(orEmpty(prompt)).endObject()
+                    .endArray();
+            if (withTools) {
+                ActionTools.writeTo(json.name("tools"), ActionTools.Dialect.OPENAI);
+            }
+            JsonBody payload = json.endObject().toBody();
+
+            HttpRequest.Builder builder = HttpRequest.newBuilder()
+                    .uri(URI.create(endpoint))
+                    .header("Authorization", "Bearer " + key)
+                    .header("Content-Type", "application/json");
+            JsonBody body = RequestCompression.apply(providerName(), endpoint, payload, builder);
+            HttpRequest request = builder.POST(body).build();
+
+            ToolCallAssembler toolCalls = new ToolCallAssembler(onChunk);
+            StreamingExchange exchange = StreamingExchange.start(client(), request, body, providerName(),
+                    new StreamingExchange.LineSink() {
+                        @Override
+                        public void line(String line) {
+                            if (!line.startsWith("data: ") || line.contains("[DONE]")) {
+                                return;
+                            }
+                            if (line.contains("\"tool_calls\"")) {
+                                readToolCallDelta(line.substring("data: ".length()), toolCalls, onChunk);
+                                return;
+                            }
+                            for (String c : JsonHelper.extractAllValues(line, "content")) {
+                                if (c != null && !c.isEmpty()) {
+                                    onChunk.accept(c);
                                 }
-                            });
+                            }
                         }
-                    })
-                    .whenComplete((r, ex) -> {
-                        if (ex != null) {
-                            onError.accept(ex);
+
+                        @Override
+                        public void end() {
+                            toolCalls.flush();
                         }
-                        onComplete.run();
-                    });
+                    },
+                    onError,
+                    onComplete);
 
-            return () -> future.cancel(true);
+            return exchange::cancel;
 
         } catch (Exception e) {
             onError.accept(e);
@@ -131,6 +154,30 @@ public abstract class OpenAiCompatibleChatService implements AiChatService {
         }
     }
 
+    /**
+     * Evento con {@code tool_calls} (fragmentos de nombre y argumentos por
+     * índice) o con {@code finish_reason: tool_calls}, que cierra las llamadas.
+     */
+    private static void readToolCallDelta(String data, ToolCallAssembler toolCalls, Consumer<String> onChunk) {
+        Object event = JsonParser.parseObject(data);
+        Object delta = JsonParser.path(event, "choices", 0, "delta");
+        if (JsonParser.path(delta, "content") instanceof String text && !text.isEmpty()) {
+            onChunk.accept(text);
+        }
+        if (JsonParser.path(delta, "tool_calls") instanceof List<?> calls) {
+            for (int i = 0; i < calls.size(); i++) {
+                Object call = calls.get(i);
+                int index = JsonParser.path(call, "index") instanceof Number n ? n.intValue() : i;
+                toolCalls.delta(index,
+                        JsonParser.path(call, "function", "name") instanceof String name ? name : null,
+                        JsonParser.path(call, "function", "arguments") instanceof String args ? args : null);
+            }
+        }
+        if ("tool_calls".equals(JsonParser.path(event, "choices", 0, "finish_reason"))) {
+            toolCalls.flush();
+        }
+    }
+
     @Override
     public String sendMessage(String prompt, String context) {
         StringBuilder result = new StringBuilder();
@@ -156,6 +203,29 @@ public abstract class OpenAiCompatibleChatService implements AiChatService {
         return result.toString();
     }
 
+    /**
+     * Abre la conexión (DNS, TCP, TLS) con la base URL para dejarla en el pool.
+     * Cualquier respuesta HTTP vale: sólo interesa la conexión.
+     */
+    @Override
+    public CompletableFuture<Void> warmUp() {
+        String base = trimToNull(apiUrl());
+        if (base == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Configura la base URL de " + providerName()));
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(stripTrailingSlash(base)))
+                    .timeout(WARM_UP_TIMEOUT)
+                    .GET()
+                    .build();
+            return client().sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(r -> null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     @Override
     public void setModel(String model) {
         String trimmed = trimToNull(model);
@@ -164,8 +234,17 @@ public abstract class OpenAiCompatibleChatService implements AiChatService {
 
     @Override
     public List<String> listModels() {
+        return withCurrentModel(catalogModels());
+    }
+
+    @Override
+    public CompletableFuture<List<String>> listModelsAsync() {
+        return catalogModelsAsync().thenApply(this::withCurrentModel);
+    }
+
+    private List<String> withCurrentModel(List<String> catalog) {
         Set<String> ordered = new LinkedHashSet<>();
-        for (String candidate : catalogModels()) {
+        for (String candidate : catalog) {
             if (candidate != null && !candidate.isBlank()) {
                 ordered.add(candidate);
             }
@@ -177,6 +256,10 @@ public abstract class OpenAiCompatibleChatService implements AiChatService {
         return new ArrayList<>(ordered);
     }
 
+    protected HttpClient client() {
+        return HttpClients.forProvider(providerName());
+    }
+
     private String effectiveModel() {
         return trimToNull(model);
     }
@@ -203,22 +286,6 @@ public abstract class OpenAiCompatibleChatService implements AiChatService {
         return normalizedBase + normalizedPath;
     }
 
-    private String safeCollect(Stream<String> lines) {
-        if (lines == null) return "";
-        try (Stream<String> closeable = lines) {
-            return closeable.collect(Collectors.joining("\n"));
-        } catch (Exception e) {
-            return "";
-        }
-    }
-
-    private String messageSuffix(String errorBody) {
-        if (errorBody == null || errorBody.isBlank()) {
-            return "";
-        }
-        return ": " + errorBody;
-    }
-
     private static String stripTrailingSlash(String value) {
         String result = value;
         while (result.endsWith("/")) {
@@ -227,6 +294,10 @@ public abstract class OpenAiCompatibleChatService implements AiChatService {
         return result;
     }
 
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
     private static String trimToNull(String value) {
         if (value == null) {
             return null;
@@ -0,0 +1,76 @@
+package com.aihelper.ai;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Respuesta HTTP de error de un proveedor. Conserva el código de estado y el
+ * {@code Retry-After} para que las capas de transporte puedan distinguir
+ * saturación (429/503) de otros fallos y esperar lo que pide el servidor.
+ */
+public class ProviderHttpException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final long retryAfterMillis;
+
+    public ProviderHttpException(String provider, int statusCode, String body, HttpHeaders headers) {
+        super(provider + " respondió con estado " + statusCode + messageSuffix(body));
+        this.statusCode = statusCode;
+        this.retryAfterMillis = headers == null
+                ? -1
+                : parseRetryAfter(headers.firstValue("Retry-After").orElse(null));
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isThrottled() {
+        return statusCode == 429 || statusCode == 503;
+    }
+
+    /**
+     * Errores que suelen desaparecer al reintentar: saturación y fallos de
+     * pasarela.
+     */
+    public boolean isTransient() {
+        return isThrottled() || statusCode == 502 || statusCode == 504;
+    }
+
+    /**
+     * Espera pedida por el servidor en milisegundos, o {@code -1} si no la indicó.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    private static long parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(trimmed)) * 1000L;
+        } catch (NumberFormatException ignored) {
+            // También puede venir como fecha HTTP.
+        }
+        try {
+            Instant at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return Math.max(0, Duration.between(Instant.now(), at).toMillis());
+        } catch (RuntimeException ignored) {
+            return -1;
+        }
+    }
+
+    private static String messageSuffix(String body) {
+        if (body == null || body.isBlank()) {
+            return "";
+        }
+        return ": " + body;
+    }
+}
@@ -0,0 +1,75 @@
+package com.aihelper.ai;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores del transporte por proveedor (reintentos, circuitos abiertos,
+ * etc.). Sólo memoria: se reinician con Eclipse.
+ */
+public final class ProviderMetrics {
+
+    public static final String RETRIES = "reintentos";
+    public static final String CIRCUIT_OPENED = "circuitos abiertos";
+    public static final String CIRCUIT_REJECTED = "rechazos por circuito";
+    public static final String HEDGES_FIRED = "peticiones de cobertura";
+    public static final String HEDGES_WON = "coberturas ganadoras";
+    public static final String GZIP_REQUESTS = "peticiones comprimidas";
+    public static final String GZIP_BYTES_IN = "bytes antes de comprimir";
+    public static final String GZIP_BYTES_OUT = "bytes tras comprimir";
+    public static final String GZIP_MICROS = "µs comprimiendo";
+
+    private static final Map<String, AtomicLong> COUNTERS = new ConcurrentHashMap<>();
+
+    private ProviderMetrics() {}
+
+    public static void increment(String provider, String counter) {
+        add(provider, counter, 1);
+    }
+
+    public static void add(String provider, String counter, long delta) {
+        COUNTERS.computeIfAbsent(provider + "." + counter, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    public static long get(String provider, String counter) {
+        AtomicLong value = COUNTERS.get(provider + "." + counter);
+        return value == null ? 0 : value.get();
+    }
+
+    private static void appendCompression(StringBuilder sb, String provider) {
+        long in = get(provider, GZIP_BYTES_IN);
+        long out = get(provider, GZIP_BYTES_OUT);
+        if (in <= 0) {
+            return;
+        }
+        sb.append(provider).append(" compresión: ")
+          .append(Math.round(out * 100.0 / in)).append("% del tamaño, ")
+          .append((in - out) / 1024).append(" KB ahorrados\n");
+    }
+
+    /**
+     * Resumen legible de todos los contadores no nulos, una línea por contador.
+     */
+    public static String describe() {
+        Map<String, Long> sorted = new TreeMap<>();
+        COUNTERS.forEach((key, value) -> {
+            if (value.get() != 0) {
+                sorted.put(key, value.get());
+            }
+        });
+        StringBuilder sb = new StringBuilder();
+        sorted.forEach((key, value) -> {
+            int sep = key.indexOf('.');
+            String provider = key.substring(0, sep);
+            String counter = key.substring(sep + 1);
+            sb.append(provider).append(" ").append(counter)
+              .append(": ").append(value).append("\n");
+            if (GZIP_BYTES_OUT.equals(counter)) {
+                appendCompression(sb, provider);
+            }
+        });
+        return sb.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package com.aihelper.ai;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.concurrent.TimeUnit;
+
+import com.aihelper.ai.util.JsonBody;
+import com.aihelper.preferences.CredentialsService;
+
+/**
+ * Compresión gzip opcional del cuerpo de las peticiones, sólo para los
+ * endpoints listados en preferencias (pasarelas propias, proxies de Ollama) y
+ * por encima del tamaño mínimo configurado. Registra en {@link ProviderMetrics}
+ * los bytes antes y después y el coste de comprimir.
+ */
+final class RequestCompression {
+
+    private RequestCompression() {}
+
+    /**
+     * Devuelve el cuerpo a enviar: el comprimido (añadiendo la cabecera
+     * {@code Content-Encoding}) o el original si no aplica. Si se comprime,
+     * el original se libera.
+     */
+    static JsonBody apply(String provider, String endpoint, JsonBody body, HttpRequest.Builder builder) {
+        if (body.contentLength() < Math.max(1, CredentialsService.getGzipMinBytes())
+                || !isEnabledFor(endpoint, CredentialsService.getGzipEndpoints())) {
+            return body;
+        }
+        long startedAt = System.nanoTime();
+        JsonBody compressed = body.gzip();
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedAt);
+        if (compressed.contentLength() >= body.contentLength()) {
+            compressed.release();
+            return body;
+        }
+        ProviderMetrics.increment(provider, ProviderMetrics.GZIP_REQUESTS);
+        ProviderMetrics.add(provider, ProviderMetrics.GZIP_BYTES_IN, body.contentLength());
+        ProviderMetrics.add(provider, ProviderMetrics.GZIP_BYTES_OUT, compressed.contentLength());
+        ProviderMetrics.add(provider, ProviderMetrics.GZIP_MICROS, micros);
+        body.release();
+        builder.header("Content-Encoding", "gzip");
+        return compressed;
+    }
+
+    /**
+     * Una entrada coincide si es prefijo de la URL o si es su host
+     * (con o sin puerto).
+     */
+    static boolean isEnabledFor(String endpoint, String configured) {
+        if (endpoint == null || configured == null || configured.isBlank()) {
+            return false;
+        }
+        String host = null;
+        String hostPort = null;
+        try {
+            URI uri = URI.create(endpoint);
+            host = uri.getHost();
+            hostPort = uri.getPort() < 0 ? host : host + ":" + uri.getPort();
+        } catch (IllegalArgumentException e) {
+            // URL mal formada: sólo se compara por prefijo
+        }
+        for (String entry : configured.split(",")) {
+            String candidate = entry.trim();
+            while (candidate.endsWith("/")) {
+                candidate = candidate.substring(0, candidate.length() - 1);
+            }
+            if (candidate.isEmpty()) {
+                continue;
+            }
+            if (endpoint.startsWith(candidate)
+                    || candidate.equalsIgnoreCase(host)
+                    || candidate.equalsIgnoreCase(hostPort)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,13 @@
+package com.aihelper.ai;
+
+/**
+ * Clases de prioridad del {@link RequestScheduler}, de mayor a menor.
+ */
+public enum RequestPriority {
+    /** Turno escrito por el usuario. */
+    INTERACTIVE,
+    /** Continuación automática tras ejecutar una acción del IDE. */
+    ACTION_FOLLOW_UP,
+    /** Opinión de un miembro del equipo en team mode. */
+    TEAM_OPINION
+}
@@ -0,0 +1,269 @@
+package com.aihelper.ai;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.aihelper.preferences.CredentialsService;
+
+/**
+ * Planificador de peticiones de streaming por proveedor.
+ *
+ * Cada proveedor tiene un límite de concurrencia adaptativo (AIMD): sube de a
+ * poco con cada respuesta sana y se reduce de forma multiplicativa ante un
+ * 429/503 o cuando el tiempo hasta el primer token se dispara respecto a la
+ * referencia observada. Lo que excede el límite espera en una cola ordenada
+ * por {@link RequestPriority} y, dentro de la misma clase, por llegada.
+ */
+public final class RequestScheduler {
+
+    private static final RequestScheduler DEFAULT = new RequestScheduler();
+
+    private static final double THROTTLE_DECREASE = 0.5;
+    private static final double LATENCY_DECREASE = 0.8;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double BASELINE_DRIFT = 1.02;
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final List<Consumer<Stats>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private RequestScheduler() {}
+
+    public static RequestScheduler getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Encola una petición para el proveedor dado. {@code starter} se ejecuta en
+     * cuanto haya hueco y debe cerrar el ticket con {@link Ticket#complete},
+     * {@link Ticket#fail} o {@link Ticket#release}.
+     */
+    public Ticket submit(String providerKey, RequestPriority priority, Consumer<Ticket> starter) {
+        Lane lane = lanes.computeIfAbsent(providerKey, Lane::new);
+        Ticket ticket = new Ticket(lane, priority == null ? RequestPriority.INTERACTIVE : priority,
+                sequence.incrementAndGet(), starter);
+        lane.enqueue(ticket);
+        return ticket;
+    }
+
+    public void addListener(Consumer<Stats> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<Stats> listener) {
+        listeners.remove(listener);
+    }
+
+    public Stats stats() {
+        int queued = 0;
+        int running = 0;
+        long lastWait = 0;
+        long lastWaitAt = 0;
+        List<String> limits = new ArrayList<>();
+        for (Lane lane : lanes.values()) {
+            synchronized (lane) {
+                queued += lane.queue.size();
+                running += lane.running;
+                if (lane.lastWaitAt > lastWaitAt) {
+                    lastWaitAt = lane.lastWaitAt;
+                    lastWait = lane.lastWaitMillis;
+                }
+                limits.add(lane.providerKey + " " + lane.running + "/" + (int) Math.floor(lane.limit));
+            }
+        }
+        limits.sort(Comparator.naturalOrder());
+        return new Stats(queued, running, lastWait, String.join(", ", limits));
+    }
+
+    private void fireChanged() {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        Stats stats = stats();
+        for (Consumer<Stats> listener : listeners) {
+            listener.accept(stats);
+        }
+    }
+
+    private static int maxConcurrency(String providerKey) {
+        int limit = "Ollama".equals(providerKey)
+                ? CredentialsService.getOllamaMaxConcurrency()
+                : CredentialsService.getRemoteMaxConcurrency();
+        return Math.max(1, limit);
+    }
+
+    /**
+     * Estado agregado para la barra de estado.
+     *
+     * @param queued          peticiones esperando hueco
+     * @param running         peticiones en curso
+     * @param lastWaitMillis  espera en cola de la última petición arrancada
+     * @param limits          "proveedor en-curso/límite" por proveedor
+     */
+    public record Stats(int queued, int running, long lastWaitMillis, String limits) {}
+
+    public static final class Ticket {
+
+        private final Lane lane;
+        private final RequestPriority priority;
+        private final long sequence;
+        private final Consumer<Ticket> starter;
+        private final long enqueuedAt = System.nanoTime();
+        private long startedAt;
+        private boolean running;
+        private boolean firstToken;
+        private boolean done;
+
+        private Ticket(Lane lane, RequestPriority priority, long sequence, Consumer<Ticket> starter) {
+            this.lane = lane;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.starter = starter;
+        }
+
+        /**
+         * Registra la llegada del primer fragmento; alimenta la señal de latencia.
+         */
+        public void firstToken() {
+            lane.recordFirstToken(this);
+        }
+
+        /** La petición terminó correctamente. */
+        public void complete() {
+            lane.finish(this, Outcome.SUCCESS);
+        }
+
+        /** La petición terminó con error; los 429/503 reducen el límite. */
+        public void fail(Throwable error) {
+            boolean throttled = error instanceof ProviderHttpException http && http.isThrottled();
+            lane.finish(this, throttled ? Outcome.THROTTLED : Outcome.FAILED);
+        }
+
+        /**
+         * Libera el hueco ocupado (o retira la petición de la cola) sin tocar el
+         * límite. Es seguro invocarlo varias veces.
+         */
+        public void release() {
+            lane.finish(this, Outcome.CANCELLED);
+        }
+    }
+
+    private enum Outcome { SUCCESS, THROTTLED, FAILED, CANCELLED }
+
+    private final class Lane {
+
+        private final String providerKey;
+        private final PriorityQueue<Ticket> queue = new PriorityQueue<>(
+                Comparator.<Ticket, RequestPriority>comparing(t -> t.priority)
+                        .thenComparingLong(t -> t.sequence));
+        private double limit;
+        private int running;
+        private double baselineTtftMillis = -1;
+        private boolean decreased;
+        private long lastDecreaseAt;
+        private long lastWaitMillis;
+        private long lastWaitAt;
+
+        private Lane(String providerKey) {
+            this.providerKey = providerKey;
+            this.limit = maxConcurrency(providerKey);
+        }
+
+        private void enqueue(Ticket ticket) {
+            synchronized (this) {
+                queue.add(ticket);
+            }
+            drain();
+            fireChanged();
+        }
+
+        private void recordFirstToken(Ticket ticket) {
+            synchronized (this) {
+                if (ticket.firstToken || !ticket.running || ticket.done) {
+                    return;
+                }
+                ticket.firstToken = true;
+                double ttft = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ticket.startedAt);
+                if (baselineTtftMillis < 0) {
+                    baselineTtftMillis = ttft;
+                    return;
+                }
+                // Referencia = mínimo reciente que se relaja poco a poco.
+                baselineTtftMillis = Math.min(ttft, baselineTtftMillis * BASELINE_DRIFT);
+                if (ttft > baselineTtftMillis * LATENCY_TOLERANCE) {
+                    decrease(LATENCY_DECREASE, ticket.startedAt);
+                }
+            }
+        }
+
+        private void finish(Ticket ticket, Outcome outcome) {
+            synchronized (this) {
+                if (ticket.done) {
+                    return;
+                }
+                ticket.done = true;
+                if (!ticket.running) {
+                    queue.remove(ticket);
+                } else {
+                    running--;
+                    adjust(ticket, outcome);
+                }
+            }
+            drain();
+            fireChanged();
+        }
+
+        private void adjust(Ticket ticket, Outcome outcome) {
+            int max = maxConcurrency(providerKey);
+            if (outcome == Outcome.THROTTLED) {
+                decrease(THROTTLE_DECREASE, ticket.startedAt);
+            } else if (outcome == Outcome.SUCCESS) {
+                limit = Math.min(max, limit + 1.0 / Math.max(1.0, limit));
+            }
+            limit = Math.min(limit, max);
+        }
+
+        /**
+         * Una sola reducción por "ventana": las peticiones que ya estaban en
+         * curso antes de la última reducción no vuelven a reducir.
+         */
+        private void decrease(double factor, long ticketStartedAt) {
+            if (decreased && ticketStartedAt - lastDecreaseAt < 0) {
+                return;
+            }
+            limit = Math.max(1.0, limit * factor);
+            decreased = true;
+            lastDecreaseAt = System.nanoTime();
+        }
+
+        private void drain() {
+            while (true) {
+                Ticket next;
+                synchronized (this) {
+                    if (queue.isEmpty() || running >= Math.max(1, (int) Math.floor(limit))) {
+                        return;
+                    }
+                    next = queue.poll();
+                    next.running = true;
+                    next.startedAt = System.nanoTime();
+                    lastWaitMillis = TimeUnit.NANOSECONDS.toMillis(next.startedAt - next.enqueuedAt);
+                    lastWaitAt = next.startedAt;
+                    running++;
+                }
+                try {
+                    next.starter.accept(next);
+                } catch (RuntimeException e) {
+                    next.fail(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.aihelper.ai;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.aihelper.preferences.CredentialsService;
+
+/**
+ * Reintenta los fallos transitorios (conexión cortada, 429, 502-504) con
+ * backoff exponencial con jitter, respetando {@code Retry-After}. Sólo se
+ * reintenta mientras no haya llegado ningún fragmento: una vez que el usuario
+ * vio texto, el error se propaga tal cual. Un {@link CircuitBreaker} por
+ * endpoint corta en seco mientras el proveedor está caído.
+ *
+ * Los plazos de {@link DeadlineChatService} ({@link StreamDeadlineException})
+ * terminan el turno sin reintentos ni fallo en el breaker; el timeout de
+ * conexión del cliente HTTP sí se reintenta.
+ */
+public class ResilientChatService extends ForwardingChatService {
+
+    private static final long BASE_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 8_000;
+    private static final long MAX_RETRY_AFTER_MILLIS = 30_000;
+
+    private final String providerKey;
+    private final Supplier<String> endpoint;
+
+    public ResilientChatService(String providerKey, Supplier<String> endpoint, AiChatService delegate) {
+        super(delegate);
+        this.providerKey = providerKey;
+        this.endpoint = endpoint;
+    }
+
+    @Override
+    public Runnable sendMessageStreaming(
+            String prompt,
+            String context,
+            Consumer<String> onChunk,
+            Consumer<Throwable> onError,
+            Runnable onComplete) {
+
+        CircuitBreaker breaker = CircuitBreaker.forEndpoint(providerKey, String.valueOf(endpoint.get()));
+        Call call = new Call(breaker, prompt, context, onChunk, onError, onComplete);
+        call.attempt();
+        return call::cancel;
+    }
+
+    static boolean isTransient(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof ProviderHttpException http) {
+            return http.isTransient();
+        }
+        if (cause instanceof StreamDeadlineException) {
+            return false;
+        }
+        return cause instanceof IOException;
+    }
+
+    static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    private static long backoffMillis(int retry, Throwable error) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(retry - 1, 10));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        if (unwrap(error) instanceof ProviderHttpException http && http.getRetryAfterMillis() >= 0) {
+            delay = Math.max(delay, Math.min(http.getRetryAfterMillis(), MAX_RETRY_AFTER_MILLIS));
+        }
+        return delay;
+    }
+
+    private final class Call {
+
+        private final CircuitBreaker breaker;
+        private final String prompt;
+        private final String context;
+        private final Consumer<String> onChunk;
+        private final Consumer<Throwable> onError;
+        private final Runnable onComplete;
+        private final int maxRetries = Math.max(0, CredentialsService.getProviderMaxRetries());
+
+        private int retries;
+        private boolean streamed;
+        private boolean cancelled;
+        private Runnable upstream;
+        private ScheduledFuture<?> pendingRetry;
+
+        private Call(CircuitBreaker breaker, String prompt, String context,
+                Consumer<String> onChunk, Consumer<Throwable> onError, Runnable onComplete) {
+            this.breaker = breaker;
+            this.prompt = prompt;
+            this.context = context;
+            this.onChunk = onChunk;
+            this.onError = onError;
+            this.onComplete = onComplete;
+        }
+
+        private void attempt() {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+            }
+            if (!breaker.tryAcquire()) {
+                onError.accept(new IllegalStateException(providerKey + " no disponible tras varios fallos seguidos;"
+                        + " se volverá a intentar en " + (breaker.remainingOpenMillis() + 999) / 1000 + " s"));
+                onComplete.run();
+                return;
+            }
+
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Runnable cancel = delegate.sendMessageStreaming(
+                    prompt,
+                    context,
+                    this::publishChunk,
+                    err -> failure.compareAndSet(null, err),
+                    () -> finishAttempt(failure.get()));
+
+            boolean cancelNow;
+            synchronized (this) {
+                upstream = cancel;
+                cancelNow = cancelled;
+            }
+            if (cancelNow) {
+                cancel.run();
+            }
+        }
+
+        private void publishChunk(String chunk) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                streamed = true;
+            }
+            onChunk.accept(chunk);
+        }
+
+        private void finishAttempt(Throwable error) {
+            synchronized (this) {
+                if (cancelled) {
+                    breaker.recordAbandoned();
+                    return;
+                }
+            }
+
+            if (error == null) {
+                breaker.recordSuccess();
+                onComplete.run();
+                return;
+            }
+
+            if (isTransient(error)) {
+                breaker.recordFailure();
+                synchronized (this) {
+                    if (!streamed && retries < maxRetries) {
+                        retries++;
+                        ProviderMetrics.increment(providerKey, ProviderMetrics.RETRIES);
+                        pendingRetry = DelayedTasks.schedule(this::attempt, backoffMillis(retries, error));
+                        return;
+                    }
+                }
+            } else if (unwrap(error) instanceof ProviderHttpException) {
+                // El endpoint respondió: está vivo aunque la petición sea inválida.
+                breaker.recordSuccess();
+            } else {
+                breaker.recordAbandoned();
+            }
+
+            onError.accept(error);
+            onComplete.run();
+        }
+
+        private void cancel() {
+            Runnable cancel;
+            ScheduledFuture<?> retry;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                cancel = upstream;
+                retry = pendingRetry;
+            }
+            if (retry != null) {
+                retry.cancel(false);
+            }
+            if (cancel != null) {
+                cancel.run();
+            }
+        }
+    }
+}
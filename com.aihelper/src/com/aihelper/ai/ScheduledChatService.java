@@ -0,0 +1,84 @@
+package com.aihelper.ai;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Hace pasar cada streaming por el {@link RequestScheduler} del proveedor,
+ * con la prioridad fijada mediante {@link #setPriority}, y le informa del
+ * primer token y del resultado para que ajuste el límite de concurrencia.
+ * El tiempo hasta el primer token se registra además en {@link TtftTracker},
+ * contado desde que la petición entra en la cola: es el mismo punto desde el
+ * que {@link HedgedChatService} arma su temporizador, así que una espera en
+ * cola no dispara la cobertura antes que el propio percentil.
+ */
+public class ScheduledChatService extends ForwardingChatService {
+
+    private final String providerKey;
+
+    public ScheduledChatService(String providerKey, AiChatService delegate) {
+        super(delegate);
+        this.providerKey = providerKey;
+    }
+
+    @Override
+    public Runnable sendMessageStreaming(
+            String prompt,
+            String context,
+            Consumer<String> onChunk,
+            Consumer<Throwable> onError,
+            Runnable onComplete) {
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicReference<Runnable> upstream = new AtomicReference<>();
+        TtftTracker ttft = TtftTracker.forModel(providerKey, currentModel());
+        long submittedAt = System.nanoTime();
+
+        RequestScheduler.Ticket ticket = RequestScheduler.getDefault().submit(providerKey, currentPriority(), t -> {
+            if (cancelled.get()) {
+                t.release();
+                return;
+            }
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            AtomicBoolean firstToken = new AtomicBoolean();
+            upstream.set(delegate.sendMessageStreaming(
+                    prompt,
+                    context,
+                    chunk -> {
+                        if (firstToken.compareAndSet(false, true)) {
+                            ttft.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submittedAt));
+                            t.firstToken();
+                        }
+                        onChunk.accept(chunk);
+                    },
+                    err -> {
+                        failure.compareAndSet(null, err);
+                        onError.accept(err);
+                    },
+                    () -> {
+                        Throwable err = failure.get();
+                        if (err == null) {
+                            t.complete();
+                        } else {
+                            t.fail(err);
+                        }
+                        onComplete.run();
+                    }));
+            if (cancelled.get()) {
+                upstream.get().run();
+            }
+        });
+
+        return () -> {
+            if (cancelled.compareAndSet(false, true)) {
+                ticket.release();
+                Runnable cancel = upstream.get();
+                if (cancel != null) {
+                    cancel.run();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.aihelper.ai;
+
+import java.net.http.HttpTimeoutException;
+
+/**
+ * Vencimiento de uno de los {@link StreamDeadlines} de un streaming. A
+ * diferencia del timeout de conexión del cliente HTTP, no es transitorio: el
+ * turno termina como con Stop y no se reintenta ni cuenta como fallo del
+ * proveedor en el {@link CircuitBreaker}.
+ */
+public class StreamDeadlineException extends HttpTimeoutException {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Plazo que venció. */
+    public enum Kind { FIRST_TOKEN, IDLE, TOTAL }
+
+    private final Kind kind;
+
+    public StreamDeadlineException(Kind kind, String message) {
+        super(message);
+        this.kind = kind;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+}
@@ -0,0 +1,69 @@
+package com.aihelper.ai;
+
+import com.aihelper.preferences.CredentialsService;
+
+/**
+ * Plazos del transporte de un proveedor, en segundos (0 = sin límite):
+ * conexión, primer token, inactividad entre fragmentos y total.
+ *
+ * Los valores generales salen de preferencias y se pueden sobrescribir por
+ * proveedor con el formato {@code Proveedor: clave=valor, ...; Proveedor2: ...}
+ * usando las claves {@code connect}, {@code ttft}, {@code idle} y {@code total}.
+ */
+record StreamDeadlines(int connectSeconds, int ttftSeconds, int idleSeconds, int totalSeconds) {
+
+    static StreamDeadlines forProvider(String providerKey) {
+        StreamDeadlines defaults = new StreamDeadlines(
+                CredentialsService.getConnectTimeoutSeconds(),
+                CredentialsService.getFirstTokenTimeoutSeconds(),
+                CredentialsService.getIdleTimeoutSeconds(),
+                CredentialsService.getTotalTimeoutSeconds());
+        return defaults.withOverrides(CredentialsService.getTimeoutOverrides(), providerKey);
+    }
+
+    StreamDeadlines withOverrides(String overrides, String providerKey) {
+        if (overrides == null || overrides.isBlank() || providerKey == null) {
+            return this;
+        }
+        for (String entry : overrides.split(";")) {
+            int sep = entry.indexOf(':');
+            if (sep < 0 || !entry.substring(0, sep).trim().equalsIgnoreCase(providerKey)) {
+                continue;
+            }
+            int connect = connectSeconds;
+            int ttft = ttftSeconds;
+            int idle = idleSeconds;
+            int total = totalSeconds;
+            for (String pair : entry.substring(sep + 1).split(",")) {
+                int eq = pair.indexOf('=');
+                if (eq < 0) {
+                    continue;
+                }
+                String key = pair.substring(0, eq).trim().toLowerCase();
+                int value = parseSeconds(pair.substring(eq + 1).trim());
+                if (value < 0) {
+                    continue;
+                }
+                switch (key) {
+                    case "connect" -> connect = value;
+                    case "ttft" -> ttft = value;
+                    case "idle" -> idle = value;
+                    case "total" -> total = value;
+                    default -> {
+                        // clave desconocida: se ignora
+                    }
+                }
+            }
+            return new StreamDeadlines(connect, ttft, idle, total);
+        }
+        return this;
+    }
+
+    private static int parseSeconds(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
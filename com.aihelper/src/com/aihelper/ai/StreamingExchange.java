@@ -0,0 +1,155 @@
+package com.aihelper.ai;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import com.aihelper.ai.util.JsonBody;
+
+/**
+ * Intercambio HTTP de streaming con cancelación real.
+ *
+ * El cuerpo se consume como {@link InputStream} para poder cerrarlo desde otro
+ * hilo: {@link #cancel()} cancela el {@code sendAsync} (si aún no llegaron las
+ * cabeceras) y cierra el cuerpo, lo que cancela la suscripción, despierta al
+ * hilo lector y cierra la conexión en lugar de esperar a que el modelo acabe.
+ * Tras cancelar no se invoca ningún callback más. Si la petición lleva un
+ * {@link JsonBody}, sus bloques vuelven al pool cuando el intercambio termina
+ * sin error.
+ */
+final class StreamingExchange {
+
+    /**
+     * Recibe el cuerpo línea a línea.
+     */
+    @FunctionalInterface
+    interface LineSink {
+        void line(String line);
+
+        /** Fin normal del cuerpo (no se invoca si hubo error o cancelación). */
+        default void end() {}
+    }
+
+    private final String provider;
+    private final JsonBody requestBody;
+    private final LineSink sink;
+    private final Consumer<Throwable> onError;
+    private final Runnable onComplete;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    private volatile CompletableFuture<HttpResponse<InputStream>> response;
+    private volatile InputStream body;
+
+    private StreamingExchange(String provider, JsonBody requestBody, LineSink sink,
+            Consumer<Throwable> onError, Runnable onComplete) {
+        this.provider = provider;
+        this.requestBody = requestBody;
+        this.sink = sink;
+        this.onError = onError;
+        this.onComplete = onComplete;
+    }
+
+    static StreamingExchange start(
+            HttpClient client,
+            HttpRequest request,
+            JsonBody requestBody,
+            String provider,
+            LineSink sink,
+            Consumer<Throwable> onError,
+            Runnable onComplete) {
+
+        StreamingExchange exchange = new StreamingExchange(provider, requestBody, sink, onError, onComplete);
+        exchange.response = client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        exchange.response
+                .thenAccept(exchange::consume)
+                .whenComplete((r, ex) -> exchange.finish(ex));
+        return exchange;
+    }
+
+    /**
+     * Aborta el intercambio y libera la conexión. Idempotente.
+     */
+    void cancel() {
+        if (!cancelled.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture<HttpResponse<InputStream>> pending = response;
+        if (pending != null) {
+            pending.cancel(true);
+        }
+        closeQuietly(body);
+    }
+
+    boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    private void consume(HttpResponse<InputStream> httpResponse) {
+        InputStream in = httpResponse.body();
+        body = in;
+        if (cancelled.get()) {
+            closeQuietly(in);
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            if (httpResponse.statusCode() >= 400) {
+                throw new ProviderHttpException(
+                        provider, httpResponse.statusCode(), collect(reader), httpResponse.headers());
+            }
+            String line;
+            while (!cancelled.get() && (line = reader.readLine()) != null) {
+                sink.line(line);
+            }
+            if (!cancelled.get()) {
+                sink.end();
+            }
+        } catch (IOException e) {
+            if (!cancelled.get()) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void finish(Throwable error) {
+        if (cancelled.get()) {
+            return;
+        }
+        if (error != null) {
+            Throwable cause = ResilientChatService.unwrap(error);
+            onError.accept(cause instanceof UncheckedIOException io ? io.getCause() : cause);
+        } else if (requestBody != null) {
+            requestBody.release();
+        }
+        onComplete.run();
+    }
+
+    private static String collect(BufferedReader reader) {
+        try {
+            return reader.lines().collect(Collectors.joining("\n"));
+        } catch (RuntimeException e) {
+            return "";
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        if (in == null) {
+            return;
+        }
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // ya cerrado o conexión caída: nada que liberar
+        }
+    }
+}
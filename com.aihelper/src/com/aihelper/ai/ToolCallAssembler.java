@@ -0,0 +1,72 @@
+package com.aihelper.ai;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Reconstruye las llamadas a herramientas de una respuesta en streaming y las
+ * emite como líneas {@code [ACTION:...]} por el mismo canal que el texto.
+ *
+ * OpenAI envía el nombre y los argumentos en fragmentos identificados por
+ * índice; Ollama y Gemini envían cada llamada completa. Una llamada se emite
+ * en cuanto se sabe completa: al empezar la siguiente, al llegar
+ * {@code finish_reason} o al terminar el cuerpo.
+ */
+final class ToolCallAssembler {
+
+    private static final class Call {
+        final StringBuilder name = new StringBuilder();
+        final StringBuilder arguments = new StringBuilder();
+    }
+
+    private final Consumer<String> onChunk;
+    private final Map<Integer, Call> pending = new TreeMap<>();
+
+    ToolCallAssembler(Consumer<String> onChunk) {
+        this.onChunk = onChunk;
+    }
+
+    /**
+     * Fragmento de la llamada {@code index}; nombre y argumentos pueden ser
+     * {@code null} o trozos parciales.
+     */
+    void delta(int index, String name, String argumentsFragment) {
+        if (!pending.containsKey(index)) {
+            // Empieza una llamada nueva: las anteriores ya no recibirán más fragmentos
+            flush();
+        }
+        Call call = pending.computeIfAbsent(index, i -> new Call());
+        if (name != null) {
+            call.name.append(name);
+        }
+        if (argumentsFragment != null) {
+            call.arguments.append(argumentsFragment);
+        }
+    }
+
+    /**
+     * Llamada que llega entera (objeto de argumentos ya leído o texto JSON).
+     */
+    void complete(String name, Object arguments) {
+        flush();
+        emit(name, arguments);
+    }
+
+    /**
+     * Emite las llamadas fragmentadas pendientes.
+     */
+    void flush() {
+        for (Call call : pending.values()) {
+            emit(call.name.toString(), call.arguments.toString());
+        }
+        pending.clear();
+    }
+
+    private void emit(String name, Object arguments) {
+        String line = ActionTools.toActionLine(name, arguments);
+        if (line != null) {
+            onChunk.accept("\n" + line + "\n");
+        }
+    }
+}
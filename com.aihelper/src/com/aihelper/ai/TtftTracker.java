@@ -0,0 +1,49 @@
+package com.aihelper.ai;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tiempos hasta el primer token recientes por proveedor y modelo. Guarda una
+ * ventana deslizante de {@link #WINDOW} muestras para calcular percentiles.
+ */
+public final class TtftTracker {
+
+    private static final int WINDOW = 50;
+    private static final int MIN_SAMPLES = 5;
+
+    private static final Map<String, TtftTracker> TRACKERS = new ConcurrentHashMap<>();
+
+    private final long[] samples = new long[WINDOW];
+    private int count;
+    private int next;
+
+    private TtftTracker() {}
+
+    public static TtftTracker forModel(String providerKey, String model) {
+        String key = providerKey + "/" + (model == null || model.isBlank() ? "default" : model.trim());
+        return TRACKERS.computeIfAbsent(key, k -> new TtftTracker());
+    }
+
+    public synchronized void record(long millis) {
+        samples[next] = Math.max(0, millis);
+        next = (next + 1) % WINDOW;
+        count = Math.min(count + 1, WINDOW);
+    }
+
+    /**
+     * Percentil {@code p} (0-100) de la ventana, o {@code fallback} si todavía
+     * no hay muestras suficientes.
+     */
+    public synchronized long percentile(int p, long fallback) {
+        if (count < MIN_SAMPLES) {
+            return fallback;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int clamped = Math.max(0, Math.min(100, p));
+        int index = (int) Math.ceil(clamped / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+}
@@ -0,0 +1,39 @@
+package com.aihelper.ai.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bloques de bytes de tamaño fijo reutilizables para los cuerpos de petición.
+ * Acotado: lo que excede {@link #MAX_POOLED} se deja al recolector.
+ */
+final class ByteChunkPool {
+
+    static final int CHUNK_SIZE = 8 * 1024;
+    private static final int MAX_POOLED = 64;
+
+    private static final ConcurrentLinkedQueue<byte[]> FREE = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger SIZE = new AtomicInteger();
+
+    private ByteChunkPool() {}
+
+    static byte[] acquire() {
+        byte[] chunk = FREE.poll();
+        if (chunk == null) {
+            return new byte[CHUNK_SIZE];
+        }
+        SIZE.decrementAndGet();
+        return chunk;
+    }
+
+    static void release(byte[] chunk) {
+        if (chunk == null || chunk.length != CHUNK_SIZE) {
+            return;
+        }
+        if (SIZE.incrementAndGet() > MAX_POOLED) {
+            SIZE.decrementAndGet();
+            return;
+        }
+        FREE.offer(chunk);
+    }
+}
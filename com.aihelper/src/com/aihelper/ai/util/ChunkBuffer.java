@@ -0,0 +1,53 @@
+package com.aihelper.ai.util;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Salida en bloques del {@link ByteChunkPool} que termina en un {@link JsonBody}.
+ * La usan {@link JsonWriter} y la compresión gzip para no crecer copiando.
+ */
+final class ChunkBuffer extends OutputStream {
+
+    private final List<byte[]> filled = new ArrayList<>();
+    private byte[] current = ByteChunkPool.acquire();
+    private int position;
+
+    @Override
+    public void write(int b) {
+        if (position == current.length) {
+            next();
+        }
+        current[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        while (length > 0) {
+            if (position == current.length) {
+                next();
+            }
+            int n = Math.min(length, current.length - position);
+            System.arraycopy(bytes, offset, current, position, n);
+            position += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    JsonBody toBody() {
+        if (current == null) {
+            throw new IllegalStateException("El cuerpo ya fue generado");
+        }
+        filled.add(current);
+        current = null;
+        return new JsonBody(filled, position);
+    }
+
+    private void next() {
+        filled.add(current);
+        current = ByteChunkPool.acquire();
+        position = 0;
+    }
+}
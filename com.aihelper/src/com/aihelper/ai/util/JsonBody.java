@@ -0,0 +1,148 @@
+package com.aihelper.ai.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cuerpo JSON ya codificado en UTF-8, repartido en bloques del
+ * {@link ByteChunkPool}. Se publica tal cual, sin copiarlo a un String ni a un
+ * array contiguo, y admite varias suscripciones (reintentos del cliente HTTP).
+ */
+public final class JsonBody implements HttpRequest.BodyPublisher {
+
+    private final byte[][] chunks;
+    private final int lastLength;
+    private final long length;
+    private volatile boolean released;
+
+    JsonBody(List<byte[]> chunks, int lastLength) {
+        this.chunks = chunks.toArray(new byte[0][]);
+        this.lastLength = lastLength;
+        this.length = (long) (this.chunks.length - 1) * ByteChunkPool.CHUNK_SIZE + lastLength;
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        ChunkSubscription subscription = new ChunkSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Versión comprimida con gzip, generada bloque a bloque sobre nuevos
+     * bloques del pool. El cuerpo original sigue siendo válido.
+     */
+    public JsonBody gzip() {
+        ChunkBuffer out = new ChunkBuffer();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, ByteChunkPool.CHUNK_SIZE)) {
+            for (int i = 0; i < chunks.length; i++) {
+                gzip.write(chunks[i], 0, chunkLength(i));
+            }
+        } catch (IOException e) {
+            // ChunkBuffer escribe en memoria y no lanza IOException
+            throw new UncheckedIOException(e);
+        }
+        return out.toBody();
+    }
+
+    /**
+     * Texto del cuerpo. Copia todos los bloques: sólo para cuerpos pequeños
+     * que hay que incrustar en otro texto (p. ej. argumentos de una acción).
+     */
+    public String asString() {
+        byte[] bytes = new byte[(int) length];
+        int offset = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            int n = chunkLength(i);
+            System.arraycopy(chunks[i], 0, bytes, offset, n);
+            offset += n;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Devuelve los bloques al pool. Sólo debe llamarse cuando el servidor ya
+     * ha leído el cuerpo completo; después el cuerpo no puede volver a enviarse.
+     */
+    public void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        for (byte[] chunk : chunks) {
+            ByteChunkPool.release(chunk);
+        }
+    }
+
+    private int chunkLength(int index) {
+        return index == chunks.length - 1 ? lastLength : ByteChunkPool.CHUNK_SIZE;
+    }
+
+    /**
+     * Emite un ByteBuffer por bloque según la demanda del suscriptor.
+     */
+    private final class ChunkSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private int next;
+        private volatile boolean done;
+
+        private ChunkSubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (done) {
+                return;
+            }
+            if (n <= 0) {
+                done = true;
+                subscriber.onError(new IllegalArgumentException("Demanda no positiva: " + n));
+                return;
+            }
+            demand.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                if (released && !done) {
+                    done = true;
+                    subscriber.onError(new IllegalStateException("El cuerpo JSON ya fue liberado"));
+                }
+                while (!done && demand.get() > 0 && next < chunks.length) {
+                    demand.decrementAndGet();
+                    int index = next++;
+                    subscriber.onNext(ByteBuffer.wrap(chunks[index], 0, chunkLength(index)));
+                }
+                if (!done && next == chunks.length) {
+                    done = true;
+                    subscriber.onComplete();
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+    }
+}
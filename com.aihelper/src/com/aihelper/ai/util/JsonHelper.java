@@ -7,14 +7,33 @@ public final class JsonHelper {
 
     private JsonHelper() {}
 
+    /**
+     * Escapa un texto para incrustarlo en una cadena JSON, en una sola pasada.
+     * Los caracteres de control (incluido {@code \r}) se escapan, no se eliminan.
+     */
     public static String escape(String text) {
         if (text == null) return "";
-        return text
-                .replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-            .replace("\t", "\\t")
-                .replace("\r", "");
+        StringBuilder sb = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                case '\b' -> sb.append("\\b");
+                case '\f' -> sb.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.toString();
     }
 
     public static String extractJsonValue(String json, String key) {
@@ -0,0 +1,247 @@
+package com.aihelper.ai.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lector JSON mínimo para las respuestas que no basta con recorrer por
+ * expresiones regulares (llamadas a herramientas, argumentos anidados).
+ * Devuelve {@link Map} (orden de aparición), {@link List}, {@link String},
+ * {@link Long}/{@link Double}, {@link Boolean} o {@code null}.
+ */
+public final class JsonParser {
+
+    private final String text;
+    private int pos;
+
+    private JsonParser(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @throws IllegalArgumentException si el texto no es JSON válido
+     */
+    public static Object parse(String json) {
+        if (json == null) {
+            throw new IllegalArgumentException("JSON nulo");
+        }
+        JsonParser parser = new JsonParser(json);
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.pos != json.length()) {
+            throw parser.error("contenido tras el valor");
+        }
+        return value;
+    }
+
+    /**
+     * Como {@link #parse} pero exige un objeto; {@code null} si el texto no lo es.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String json) {
+        try {
+            Object value = parse(json);
+            return value instanceof Map ? (Map<String, Object>) value : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Recorre {@code root} siguiendo claves (objetos) e índices (listas);
+     * {@code null} si algún paso no existe.
+     */
+    public static Object path(Object root, Object... steps) {
+        Object current = root;
+        for (Object step : steps) {
+            if (step instanceof String key && current instanceof Map<?, ?> map) {
+                current = map.get(key);
+            } else if (step instanceof Integer index && current instanceof List<?> list) {
+                current = index >= 0 && index < list.size() ? list.get(index) : null;
+            } else {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (pos >= text.length()) {
+            throw error("fin inesperado");
+        }
+        char c = text.charAt(pos);
+        return switch (c) {
+            case '{' -> readObject();
+            case '[' -> readArray();
+            case '"' -> readString();
+            case 't' -> literal("true", Boolean.TRUE);
+            case 'f' -> literal("false", Boolean.FALSE);
+            case 'n' -> literal("null", null);
+            default -> readNumber();
+        };
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        pos++;
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return map;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("se esperaba una clave");
+            }
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            map.put(key, readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                return map;
+            }
+            if (c != ',') {
+                throw error("se esperaba ',' o '}'");
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> list = new ArrayList<>();
+        pos++;
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return list;
+        }
+        while (true) {
+            list.add(readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == ']') {
+                return list;
+            }
+            if (c != ',') {
+                throw error("se esperaba ',' o ']'");
+            }
+        }
+    }
+
+    private String readString() {
+        pos++;
+        StringBuilder sb = null;
+        int start = pos;
+        while (true) {
+            if (pos >= text.length()) {
+                throw error("cadena sin cerrar");
+            }
+            char c = text.charAt(pos);
+            if (c == '"') {
+                String tail = text.substring(start, pos++);
+                return sb == null ? tail : sb.append(tail).toString();
+            }
+            if (c != '\\') {
+                pos++;
+                continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder();
+            }
+            sb.append(text, start, pos);
+            pos++;
+            char escape = next();
+            switch (escape) {
+                case '"', '\\', '/' -> sb.append(escape);
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'u' -> {
+                    if (pos + 4 > text.length()) {
+                        throw error("escape \\u incompleto");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("escape \\u inválido");
+                    }
+                    pos += 4;
+                }
+                default -> throw error("escape inválido");
+            }
+            start = pos;
+        }
+    }
+
+    private Object readNumber() {
+        int start = pos;
+        boolean decimal = false;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c == '.' || c == 'e' || c == 'E') {
+                decimal = true;
+            } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                break;
+            }
+            pos++;
+        }
+        if (start == pos) {
+            throw error("valor inesperado");
+        }
+        String number = text.substring(start, pos);
+        try {
+            if (!decimal) {
+                return Long.parseLong(number);
+            }
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            try {
+                return Double.parseDouble(number);
+            } catch (NumberFormatException ignored) {
+                throw error("número inválido");
+            }
+        }
+    }
+
+    private Object literal(String word, Object value) {
+        if (!text.startsWith(word, pos)) {
+            throw error("valor inesperado");
+        }
+        pos += word.length();
+        return value;
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() {
+        return pos < text.length() ? text.charAt(pos) : '\0';
+    }
+
+    private char next() {
+        if (pos >= text.length()) {
+            throw error("fin inesperado");
+        }
+        return text.charAt(pos++);
+    }
+
+    private void expect(char c) {
+        if (next() != c) {
+            throw error("se esperaba '" + c + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String reason) {
+        return new IllegalArgumentException("JSON inválido en la posición " + pos + ": " + reason);
+    }
+}
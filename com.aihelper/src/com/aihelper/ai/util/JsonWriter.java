@@ -0,0 +1,177 @@
+package com.aihelper.ai.util;
+
+/**
+ * Escritor JSON en streaming para los cuerpos de petición. Escapa y codifica
+ * en UTF-8 en una sola pasada directamente sobre bloques del
+ * {@link ByteChunkPool}, sin pasar por plantillas ni copias intermedias del
+ * contexto. Cada instancia produce un único {@link JsonBody}.
+ */
+public final class JsonWriter {
+
+    private static final int MAX_DEPTH = 32;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+
+    private final ChunkBuffer out = new ChunkBuffer();
+    private final boolean[] hasElements = new boolean[MAX_DEPTH + 1];
+    private int depth;
+    private boolean afterName;
+
+    private JsonWriter() {}
+
+    public static JsonWriter create() {
+        return new JsonWriter();
+    }
+
+    public JsonWriter beginObject() {
+        return open('{');
+    }
+
+    public JsonWriter endObject() {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() {
+        return open('[');
+    }
+
+    public JsonWriter endArray() {
+        return close(']');
+    }
+
+    public JsonWriter name(String name) {
+        beforeValue();
+        string(name);
+        put(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Escribe una cadena; {@code null} se escribe como {@code null} JSON.
+     */
+    public JsonWriter value(String value) {
+        beforeValue();
+        if (value == null) {
+            ascii("null");
+        } else {
+            string(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        beforeValue();
+        ascii(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        beforeValue();
+        ascii(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonBody toBody() {
+        if (depth != 0) {
+            throw new IllegalStateException("JSON sin cerrar (profundidad " + depth + ")");
+        }
+        return out.toBody();
+    }
+
+    private JsonWriter open(char bracket) {
+        beforeValue();
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("JSON demasiado anidado");
+        }
+        put(bracket);
+        depth++;
+        hasElements[depth] = false;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) {
+        if (depth == 0) {
+            throw new IllegalStateException("Cierre JSON sin apertura");
+        }
+        depth--;
+        put(bracket);
+        return this;
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (hasElements[depth]) {
+                put(',');
+            }
+            hasElements[depth] = true;
+        }
+    }
+
+    private void string(String text) {
+        put('"');
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                switch (c) {
+                    case '"' -> escaped('"');
+                    case '\\' -> escaped('\\');
+                    case '\n' -> escaped('n');
+                    case '\r' -> escaped('r');
+                    case '\t' -> escaped('t');
+                    case '\b' -> escaped('b');
+                    case '\f' -> escaped('f');
+                    default -> {
+                        if (c < 0x20) {
+                            unicodeEscape(c);
+                        } else {
+                            put(c);
+                        }
+                    }
+                }
+            } else if (c < 0x800) {
+                put(0xC0 | (c >> 6));
+                put(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                put(0xF0 | (codePoint >> 18));
+                put(0x80 | ((codePoint >> 12) & 0x3F));
+                put(0x80 | ((codePoint >> 6) & 0x3F));
+                put(0x80 | (codePoint & 0x3F));
+            } else {
+                // Un surrogate suelto no es UTF-8 válido: se sustituye por U+FFFD
+                int unit = Character.isSurrogate(c) ? 0xFFFD : c;
+                put(0xE0 | (unit >> 12));
+                put(0x80 | ((unit >> 6) & 0x3F));
+                put(0x80 | (unit & 0x3F));
+            }
+        }
+        put('"');
+    }
+
+    private void escaped(char c) {
+        put('\\');
+        put(c);
+    }
+
+    private void unicodeEscape(char c) {
+        ascii("\\u00");
+        put(HEX[(c >> 4) & 0xF]);
+        put(HEX[c & 0xF]);
+    }
+
+    private void ascii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            put(text.charAt(i));
+        }
+    }
+
+    private void put(int b) {
+        out.write(b);
+    }
+}
@@ -1,5 +1,6 @@
 package com.aihelper.preferences;
 
+import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
 import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.StringFieldEditor;
@@ -83,12 +84,137 @@ public class CredentialsPreferencePage extends FieldEditorPreferencePage impleme
                 "Ollama base URL",
                 getFieldEditorParent()));
 
+        IntegerFieldEditor ollamaConcurrency = new IntegerFieldEditor(
+                PreferenceConstants.OLLAMA_MAX_CONCURRENCY,
+                "Ollama peticiones simultáneas máx.",
+                getFieldEditorParent());
+        ollamaConcurrency.setValidRange(1, 16);
+        addField(ollamaConcurrency);
+
+        addField(new StringFieldEditor(
+                PreferenceConstants.OLLAMA_KEEP_ALIVE,
+                "Ollama keep_alive (p. ej. 30m, 2h, -1 = siempre)",
+                getFieldEditorParent()));
+        IntegerFieldEditor numCtx = new IntegerFieldEditor(
+                PreferenceConstants.OLLAMA_NUM_CTX,
+                "Ollama num_ctx (0 = valor del modelo)",
+                getFieldEditorParent());
+        numCtx.setValidRange(0, 1_048_576);
+        addField(numCtx);
+        IntegerFieldEditor numPredict = new IntegerFieldEditor(
+                PreferenceConstants.OLLAMA_NUM_PREDICT,
+                "Ollama num_predict (0 = sin límite)",
+                getFieldEditorParent());
+        numPredict.setValidRange(0, 1_048_576);
+        addField(numPredict);
+        IntegerFieldEditor numThread = new IntegerFieldEditor(
+                PreferenceConstants.OLLAMA_NUM_THREAD,
+                "Ollama num_thread (0 = automático)",
+                getFieldEditorParent());
+        numThread.setValidRange(0, 256);
+        addField(numThread);
+        addField(new StringFieldEditor(
+                PreferenceConstants.OLLAMA_MODEL_OPTIONS,
+                "Ollama opciones por modelo (modelo: num_ctx=16384, keep_alive=1h; ...)",
+                getFieldEditorParent()));
+
+        IntegerFieldEditor remoteConcurrency = new IntegerFieldEditor(
+                PreferenceConstants.REMOTE_MAX_CONCURRENCY,
+                "Proveedores remotos peticiones simultáneas máx.",
+                getFieldEditorParent());
+        remoteConcurrency.setValidRange(1, 32);
+        addField(remoteConcurrency);
+
+        IntegerFieldEditor retries = new IntegerFieldEditor(
+                PreferenceConstants.PROVIDER_MAX_RETRIES,
+                "Reintentos ante fallos transitorios",
+                getFieldEditorParent());
+        retries.setValidRange(0, 5);
+        addField(retries);
+
+        IntegerFieldEditor connectTimeout = new IntegerFieldEditor(
+                PreferenceConstants.TIMEOUT_CONNECT_SECONDS,
+                "Plazo de conexión (s, 0 = sin límite)",
+                getFieldEditorParent());
+        connectTimeout.setValidRange(0, 600);
+        addField(connectTimeout);
+        IntegerFieldEditor firstTokenTimeout = new IntegerFieldEditor(
+                PreferenceConstants.TIMEOUT_FIRST_TOKEN_SECONDS,
+                "Plazo hasta el primer token (s, 0 = sin límite)",
+                getFieldEditorParent());
+        firstTokenTimeout.setValidRange(0, 3600);
+        addField(firstTokenTimeout);
+        IntegerFieldEditor idleTimeout = new IntegerFieldEditor(
+                PreferenceConstants.TIMEOUT_IDLE_SECONDS,
+                "Inactividad máx. entre fragmentos (s, 0 = sin límite)",
+                getFieldEditorParent());
+        idleTimeout.setValidRange(0, 3600);
+        addField(idleTimeout);
+        IntegerFieldEditor totalTimeout = new IntegerFieldEditor(
+                PreferenceConstants.TIMEOUT_TOTAL_SECONDS,
+                "Plazo total de una respuesta (s, 0 = sin límite)",
+                getFieldEditorParent());
+        totalTimeout.setValidRange(0, 86_400);
+        addField(totalTimeout);
+        addField(new StringFieldEditor(
+                PreferenceConstants.TIMEOUT_OVERRIDES,
+                "Plazos por proveedor (Ollama: ttft=300, idle=120; OpenAI: connect=5)",
+                getFieldEditorParent()));
+
+        addField(new StringFieldEditor(
+                PreferenceConstants.GZIP_ENDPOINTS,
+                "Comprimir con gzip las peticiones a (URLs o hosts, separados por comas)",
+                getFieldEditorParent()));
+        IntegerFieldEditor gzipMin = new IntegerFieldEditor(
+                PreferenceConstants.GZIP_MIN_BYTES,
+                "Tamaño mínimo de petición a comprimir (bytes)",
+                getFieldEditorParent());
+        gzipMin.setValidRange(1024, 10_000_000);
+        addField(gzipMin);
+
+        addField(new BooleanFieldEditor(
+                PreferenceConstants.HEDGE_ENABLED,
+                "Cobertura: repetir en un proveedor secundario si tarda el primer token",
+                getFieldEditorParent()));
+        addField(new StringFieldEditor(
+                PreferenceConstants.HEDGE_PROVIDER,
+                "Cobertura - proveedor secundario",
+                getFieldEditorParent()));
+        addField(new StringFieldEditor(
+                PreferenceConstants.HEDGE_MODEL,
+                "Cobertura - modelo secundario",
+                getFieldEditorParent()));
+        IntegerFieldEditor hedgePercentile = new IntegerFieldEditor(
+                PreferenceConstants.HEDGE_PERCENTILE,
+                "Cobertura - percentil de TTFT para el plazo",
+                getFieldEditorParent());
+        hedgePercentile.setValidRange(50, 99);
+        addField(hedgePercentile);
+
         IntegerFieldEditor history = new IntegerFieldEditor(
                 PreferenceConstants.CHAT_MAX_HISTORY,
                 "Mensajes máx. en historial (contexto)",
                 getFieldEditorParent());
         history.setValidRange(1, 500);
         addField(history);
+        addField(new BooleanFieldEditor(
+                PreferenceConstants.CHAT_NATIVE_TOOLS,
+                "Acciones mediante llamadas a herramientas nativas del proveedor (si el modelo las admite)",
+                getFieldEditorParent()));
+
+        IntegerFieldEditor actionRoundTrips = new IntegerFieldEditor(
+                PreferenceConstants.CHAT_ACTION_MAX_ROUND_TRIPS,
+                "Idas y vueltas máx. de acciones por mensaje",
+                getFieldEditorParent());
+        actionRoundTrips.setValidRange(1, 50);
+        addField(actionRoundTrips);
+
+        IntegerFieldEditor actionTokens = new IntegerFieldEditor(
+                PreferenceConstants.CHAT_ACTION_MAX_TOKENS,
+                "Tokens enviados máx. por mensaje (con acciones)",
+                getFieldEditorParent());
+        actionTokens.setValidRange(1000, 2000000);
+        addField(actionTokens);
 
         IntegerFieldEditor depth = new IntegerFieldEditor(
                 PreferenceConstants.LIST_MAX_DEPTH,
@@ -78,6 +78,94 @@ public final class CredentialsService {
         return preferenceStore().getString(PreferenceConstants.OLLAMA_BASE_URL);
     }
 
+    public static int getOllamaMaxConcurrency() {
+        return preferenceStore().getInt(PreferenceConstants.OLLAMA_MAX_CONCURRENCY);
+    }
+
+    public static String getOllamaKeepAlive() {
+        return preferenceStore().getString(PreferenceConstants.OLLAMA_KEEP_ALIVE);
+    }
+
+    public static int getOllamaNumCtx() {
+        return preferenceStore().getInt(PreferenceConstants.OLLAMA_NUM_CTX);
+    }
+
+    public static int getOllamaNumPredict() {
+        return preferenceStore().getInt(PreferenceConstants.OLLAMA_NUM_PREDICT);
+    }
+
+    public static int getOllamaNumThread() {
+        return preferenceStore().getInt(PreferenceConstants.OLLAMA_NUM_THREAD);
+    }
+
+    public static String getOllamaModelOptions() {
+        return preferenceStore().getString(PreferenceConstants.OLLAMA_MODEL_OPTIONS);
+    }
+
+    public static int getRemoteMaxConcurrency() {
+        return preferenceStore().getInt(PreferenceConstants.REMOTE_MAX_CONCURRENCY);
+    }
+
+    public static int getProviderMaxRetries() {
+        return preferenceStore().getInt(PreferenceConstants.PROVIDER_MAX_RETRIES);
+    }
+
+    public static int getConnectTimeoutSeconds() {
+        return preferenceStore().getInt(PreferenceConstants.TIMEOUT_CONNECT_SECONDS);
+    }
+
+    public static int getFirstTokenTimeoutSeconds() {
+        return preferenceStore().getInt(PreferenceConstants.TIMEOUT_FIRST_TOKEN_SECONDS);
+    }
+
+    public static int getIdleTimeoutSeconds() {
+        return preferenceStore().getInt(PreferenceConstants.TIMEOUT_IDLE_SECONDS);
+    }
+
+    public static int getTotalTimeoutSeconds() {
+        return preferenceStore().getInt(PreferenceConstants.TIMEOUT_TOTAL_SECONDS);
+    }
+
+    public static String getTimeoutOverrides() {
+        return preferenceStore().getString(PreferenceConstants.TIMEOUT_OVERRIDES);
+    }
+
+    public static String getGzipEndpoints() {
+        return preferenceStore().getString(PreferenceConstants.GZIP_ENDPOINTS);
+    }
+
+    public static int getGzipMinBytes() {
+        return preferenceStore().getInt(PreferenceConstants.GZIP_MIN_BYTES);
+    }
+
+    public static boolean isHedgeEnabled() {
+        return preferenceStore().getBoolean(PreferenceConstants.HEDGE_ENABLED);
+    }
+
+    public static String getHedgeProvider() {
+        return preferenceStore().getString(PreferenceConstants.HEDGE_PROVIDER);
+    }
+
+    public static String getHedgeModel() {
+        return preferenceStore().getString(PreferenceConstants.HEDGE_MODEL);
+    }
+
+    public static int getHedgePercentile() {
+        return preferenceStore().getInt(PreferenceConstants.HEDGE_PERCENTILE);
+    }
+
+    public static boolean isNativeToolsEnabled() {
+        return preferenceStore().getBoolean(PreferenceConstants.CHAT_NATIVE_TOOLS);
+    }
+
+    public static int getActionMaxRoundTrips() {
+        return preferenceStore().getInt(PreferenceConstants.CHAT_ACTION_MAX_ROUND_TRIPS);
+    }
+
+    public static int getActionMaxTokens() {
+        return preferenceStore().getInt(PreferenceConstants.CHAT_ACTION_MAX_TOKENS);
+    }
+
     private static String resolve(String envKey, String preferenceKey) {
         String env = System.getenv(envKey);
         if (env != null && !env.isBlank()) {
@@ -23,8 +23,31 @@ public final class PreferenceConstants {
     public static final String DEEPSEEK_BASE_URL = "deepseek.base.url";
 
     public static final String OLLAMA_BASE_URL = "ollama.base.url";
+    public static final String OLLAMA_MAX_CONCURRENCY = "ollama.max.concurrency";
+    public static final String OLLAMA_KEEP_ALIVE = "ollama.keep.alive";
+    public static final String OLLAMA_NUM_CTX = "ollama.num.ctx";
+    public static final String OLLAMA_NUM_PREDICT = "ollama.num.predict";
+    public static final String OLLAMA_NUM_THREAD = "ollama.num.thread";
+    public static final String OLLAMA_MODEL_OPTIONS = "ollama.model.options";
+    public static final String REMOTE_MAX_CONCURRENCY = "remote.max.concurrency";
+    public static final String PROVIDER_MAX_RETRIES = "provider.max.retries";
+    public static final String TIMEOUT_CONNECT_SECONDS = "transport.timeout.connect";
+    public static final String TIMEOUT_FIRST_TOKEN_SECONDS = "transport.timeout.first.token";
+    public static final String TIMEOUT_IDLE_SECONDS = "transport.timeout.idle";
+    public static final String TIMEOUT_TOTAL_SECONDS = "transport.timeout.total";
+    public static final String TIMEOUT_OVERRIDES = "transport.timeout.overrides";
+    public static final String GZIP_ENDPOINTS = "transport.gzip.endpoints";
+    public static final String GZIP_MIN_BYTES = "transport.gzip.min.bytes";
+
+    public static final String HEDGE_ENABLED = "hedge.enabled";
+    public static final String HEDGE_PROVIDER = "hedge.provider";
+    public static final String HEDGE_MODEL = "hedge.model";
+    public static final String HEDGE_PERCENTILE = "hedge.percentile";
 
     public static final String CHAT_MAX_HISTORY = "chat.max.history";
+    public static final String CHAT_NATIVE_TOOLS = "chat.native.tools";
+    public static final String CHAT_ACTION_MAX_ROUND_TRIPS = "chat.action.max.round.trips";
+    public static final String CHAT_ACTION_MAX_TOKENS = "chat.action.max.tokens";
     public static final String LIST_MAX_DEPTH = "chat.list.max.depth";
     public static final String LIST_MAX_LIMIT = "chat.list.max.limit";
 
@@ -37,8 +37,31 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer {
         store.setDefault(PreferenceConstants.DEEPSEEK_BASE_URL, "https://api.deepseek.com/beta/v1");
 
         store.setDefault(PreferenceConstants.OLLAMA_BASE_URL, "http://localhost:11434");
+        store.setDefault(PreferenceConstants.OLLAMA_MAX_CONCURRENCY, 1);
+        store.setDefault(PreferenceConstants.OLLAMA_KEEP_ALIVE, "30m");
+        store.setDefault(PreferenceConstants.OLLAMA_NUM_CTX, 8192);
+        store.setDefault(PreferenceConstants.OLLAMA_NUM_PREDICT, 0);
+        store.setDefault(PreferenceConstants.OLLAMA_NUM_THREAD, 0);
+        store.setDefault(PreferenceConstants.OLLAMA_MODEL_OPTIONS, "");
+        store.setDefault(PreferenceConstants.REMOTE_MAX_CONCURRENCY, 4);
+        store.setDefault(PreferenceConstants.PROVIDER_MAX_RETRIES, 2);
+        store.setDefault(PreferenceConstants.TIMEOUT_CONNECT_SECONDS, 10);
+        store.setDefault(PreferenceConstants.TIMEOUT_FIRST_TOKEN_SECONDS, 120);
+        store.setDefault(PreferenceConstants.TIMEOUT_IDLE_SECONDS, 60);
+        store.setDefault(PreferenceConstants.TIMEOUT_TOTAL_SECONDS, 600);
+        store.setDefault(PreferenceConstants.TIMEOUT_OVERRIDES, "");
+        store.setDefault(PreferenceConstants.GZIP_ENDPOINTS, "");
+        store.setDefault(PreferenceConstants.GZIP_MIN_BYTES, 16 * 1024);
+
+        store.setDefault(PreferenceConstants.HEDGE_ENABLED, false);
+        store.setDefault(PreferenceConstants.HEDGE_PROVIDER, "");
+        store.setDefault(PreferenceConstants.HEDGE_MODEL, "");
+        store.setDefault(PreferenceConstants.HEDGE_PERCENTILE, 90);
 
         store.setDefault(PreferenceConstants.CHAT_MAX_HISTORY, 50);
+        store.setDefault(PreferenceConstants.CHAT_NATIVE_TOOLS, true);
+        store.setDefault(PreferenceConstants.CHAT_ACTION_MAX_ROUND_TRIPS, 8);
+        store.setDefault(PreferenceConstants.CHAT_ACTION_MAX_TOKENS, 60000);
         store.setDefault(PreferenceConstants.LIST_MAX_DEPTH, 5);
         store.setDefault(PreferenceConstants.LIST_MAX_LIMIT, 500);
 
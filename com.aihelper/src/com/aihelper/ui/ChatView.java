@@ -4,8 +4,10 @@ import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -34,6 +36,7 @@ import org.eclipse.ui.part.ViewPart;
 
 import com.aihelper.ai.*;
 import com.aihelper.model.ChatMessage;
+import com.aihelper.preferences.CredentialsService;
 import com.aihelper.ui.chat.*;
 import com.aihelper.workspace.DiffService;
 import com.aihelper.workspace.WorkspaceService;
@@ -43,7 +46,7 @@ public class ChatView extends ViewPart {
     public static final String ID = "com.aihelper.ui.chatView";
     private static final String ACTION_RESULT_PREFIX = "[ACTION_RESULT:";
     private static final String ACTION_FOLLOW_UP_PROMPT =
-            "Use the latest ACTION_RESULT from the conversation history. If more data is needed, output exactly one action line. Otherwise answer the user directly.";
+            "Use the latest ACTION_RESULT from the conversation history. If more data is needed, output the action lines you need (several at once if they are independent). Otherwise answer the user directly.";
 
     // ===============================
     // UI
@@ -55,6 +58,7 @@ public class ChatView extends ViewPart {
     private Combo viewCombo;
     private Text statusText;
     private Text progressText;
+    private Text queueText;
     private Button spinnerButton;
     private Button stopButton;
     private Button teamModeButton;
@@ -65,6 +69,7 @@ public class ChatView extends ViewPart {
     private AiChatService aiService;
     private ChatContextBuilder contextBuilder;
     private ChatActionDispatcher actionDispatcher;
+    private ActionLoopGovernor actionGovernor = new ActionLoopGovernor(1, 1);
     private final ProfileConfigService profileConfigService = new ProfileConfigService();
     private final Map<ChatProfile, ChatSession> sessions = new EnumMap<>(ChatProfile.class);
     private final Map<ChatProfile, List<ChatMessage>> viewMessages = new EnumMap<>(ChatProfile.class);
@@ -79,6 +84,7 @@ public class ChatView extends ViewPart {
     private Runnable currentCancel;
     private String lastCodeBlock = "";
     private int aiMessageStart = -1;
+    private int warmUpGeneration;
 
     // ===============================
     // Styling
@@ -93,6 +99,8 @@ public class ChatView extends ViewPart {
 
     private final MarkdownRenderer markdownRenderer = new MarkdownRenderer();
     private Image copilotIcon;
+    private final Consumer<RequestScheduler.Stats> schedulerListener = this::onSchedulerStats;
+    private final BiConsumer<String, List<String>> catalogListener = this::onCatalogRefreshed;
 
     // ===============================
     // Lifecycle
@@ -121,10 +129,18 @@ public class ChatView extends ViewPart {
 
         contextBuilder = new ChatContextBuilder(workspaceService);
         // Instanciar el dispatcher para acciones automáticas
-        actionDispatcher = new ChatActionDispatcher(workspaceService, this::continueAutomatedConversation);
+        actionDispatcher = new ChatActionDispatcher(workspaceService, this::continueAutomatedConversation,
+                task -> Display.getDefault().asyncExec(() -> {
+                    if (!chatArea.isDisposed()) {
+                        task.run();
+                    }
+                }));
+        actionDispatcher.setBusyListener(this::onActionsBusy);
 
         loadHistory();
         initProvider();
+        RequestScheduler.getDefault().addListener(schedulerListener);
+        ModelCatalog.getDefault().addListener(catalogListener);
     }
 
     // ===============================
@@ -166,6 +182,7 @@ public class ChatView extends ViewPart {
         modelCombo.addListener(SWT.Selection, e -> {
             aiService.setModel(modelCombo.getText());
             statusInfo("Modelo activo: " + modelCombo.getText());
+            warmUp();
         });
 
         viewCombo = new Combo(bar, SWT.READ_ONLY);
@@ -271,7 +288,7 @@ public class ChatView extends ViewPart {
     private void createStatusBar(Composite parent) {
         Composite bar = new Composite(parent, SWT.NONE);
         bar.setLayoutData(new GridData(SWT.FILL, SWT.BOTTOM, true, false));
-        bar.setLayout(new GridLayout(4, false));
+        bar.setLayout(new GridLayout(5, false));
 
         statusText = new Text(bar, SWT.READ_ONLY | SWT.BORDER);
         statusText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
@@ -282,6 +299,11 @@ public class ChatView extends ViewPart {
         progressText.setText("Tokens total: 0");
         progressText.setToolTipText("Estimación acumulada de tokens consumidos por el chat actual.");
 
+        queueText = new Text(bar, SWT.READ_ONLY | SWT.BORDER);
+        queueText.setLayoutData(new GridData(160, SWT.DEFAULT));
+        queueText.setText("Cola: 0");
+        queueText.setToolTipText("Peticiones en cola y espera de la última petición");
+
         spinnerButton = new Button(bar, SWT.PUSH);
         spinnerButton.setText("⟳");
         spinnerButton.setEnabled(false);
@@ -301,20 +323,18 @@ public class ChatView extends ViewPart {
     }
 
     private void switchProvider() {
-        aiService = switch (providerCombo.getText()) {
-            case "OpenAI" -> new OpenAiChatService();
-            case "Gemini" -> new GeminiChatService();
-            case "Qwen" -> new QwenChatService();
-            case "DeepSeek" -> new DeepSeekChatService();
-            default -> new OllamaChatService();
-        };
+        aiService = createService(providerCombo.getText());
         loadModels();
     }
 
     private void loadModels() {
-        CompletableFuture
-            .supplyAsync(aiService::listModels)
+        AiChatService service = aiService;
+        service.listModelsAsync()
+            .exceptionally(error -> List.of())
             .thenAccept(models -> Display.getDefault().asyncExec(() -> {
+                if (service != aiService || modelCombo.isDisposed()) {
+                    return;
+                }
                 if (models == null || models.isEmpty()) {
                     modelCombo.setItems(new String[0]);
                     modelCombo.deselectAll();
@@ -324,9 +344,65 @@ public class ChatView extends ViewPart {
                 modelCombo.setItems(models.toArray(String[]::new));
                 modelCombo.select(0);
                 aiService.setModel(models.get(0));
+                warmUp();
             }));
     }
 
+    /**
+     * El catálogo se revalidó en segundo plano con otra lista: se actualiza
+     * el combo si es del proveedor activo, manteniendo el modelo elegido.
+     */
+    private void onCatalogRefreshed(String providerKey, List<String> models) {
+        Display display = Display.getDefault();
+        if (display.isDisposed() || models.isEmpty()) {
+            return;
+        }
+        display.asyncExec(() -> {
+            if (modelCombo.isDisposed()
+                    || !providerKey.equals(ChatServiceFactory.providerKey(providerCombo.getText()))) {
+                return;
+            }
+            String selected = modelCombo.getText();
+            modelCombo.setItems(models.toArray(String[]::new));
+            int index = models.indexOf(selected);
+            if (index >= 0) {
+                modelCombo.select(index);
+                return;
+            }
+            modelCombo.select(0);
+            aiService.setModel(models.get(0));
+            warmUp();
+        });
+    }
+
+    /**
+     * Calienta en segundo plano el proveedor/modelo activo (conexión y, en
+     * Ollama, carga del modelo) para que la primera petición no pague ese coste.
+     * Sólo el último calentamiento lanzado actualiza el estado.
+     */
+    private void warmUp() {
+        AiChatService service = aiService;
+        if (service == null) {
+            return;
+        }
+        int generation = ++warmUpGeneration;
+        String target = providerCombo.getText() + " · " + modelCombo.getText();
+        long startedAt = System.nanoTime();
+        statusInfo("Preparando " + target + "…");
+        service.warmUp().whenComplete((r, err) -> Display.getDefault().asyncExec(() -> {
+            if (generation != warmUpGeneration) {
+                return;
+            }
+            if (err != null) {
+                Throwable cause = err.getCause() != null ? err.getCause() : err;
+                updateStatus("WARN", target + " no respondió al precalentar: " + cause.getMessage());
+                return;
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            statusInfo(target + " listo (" + formatSeconds(millis) + ")");
+        }));
+    }
+
     // ===============================
     // CHAT FLOW
     // ===============================
@@ -340,6 +416,9 @@ public class ChatView extends ViewPart {
         final String projectName = workspaceService.getActiveProjectName();
 
         input.setText("");
+        actionDispatcher.discardSpeculative();
+        actionGovernor = new ActionLoopGovernor(
+                CredentialsService.getActionMaxRoundTrips(), CredentialsService.getActionMaxTokens());
         appendUser(msg);
         chatHistory.add(new ChatMessage("user", msg));
         recordUserMessageForViews(msg);
@@ -390,11 +469,6 @@ public class ChatView extends ViewPart {
     }
 
     private void sendSingleMessage(String msg, String projectName, boolean appendHeader) {
-        if (appendHeader) {
-            appendAIHeader();
-        }
-        setStreamingState(true);
-
         ChatSession session = resolveSession(
                 ChatProfile.TEAM_LEADER,
                 providerCombo.getText(),
@@ -402,11 +476,49 @@ public class ChatView extends ViewPart {
                 projectName
         );
         int requestTokens = estimateRequestTokens(session, msg);
+        if (!appendHeader) {
+            String stop = actionGovernor.admitFollowUp(requestTokens);
+            if (stop != null) {
+                stopActionChain(stop);
+                return;
+            }
+        }
+        actionGovernor.recordRequest(requestTokens);
+
+        if (appendHeader) {
+            appendAIHeader();
+        }
+        setStreamingState(true);
+        session.setPriority(appendHeader ? RequestPriority.INTERACTIVE : RequestPriority.ACTION_FOLLOW_UP);
+        if (appendHeader) {
+            AiChatService hedged = ChatServiceFactory.createHedged(providerCombo.getText(), modelCombo.getText());
+            if (hedged != null) {
+                session.setAiService(hedged);
+            }
+        }
+
+        ActionLoopGovernor governor = actionGovernor;
+        ActionStreamDetector detector = new ActionStreamDetector(ChatActionDispatcher.MAX_BATCH_ACTIONS,
+                new ActionStreamDetector.Listener() {
+                    @Override
+                    public void onAction(String line) {
+                        actionDispatcher.prefetch(line, governor::allowsPrefetch);
+                    }
+
+                    @Override
+                    public void onActionTurnComplete(String response) {
+                        session.finishEarly(response);
+                    }
+                });
 
         currentCancel = session.sendMessageStreaming(
             msg,
-            chunk -> Display.getDefault().asyncExec(() -> addConsumedTokens(ChatProfile.TEAM_LEADER, estimateTokens(chunk))),
+            chunk -> {
+                detector.accept(chunk);
+                Display.getDefault().asyncExec(() -> addConsumedTokens(ChatProfile.TEAM_LEADER, estimateTokens(chunk)));
+            },
             err -> Display.getDefault().asyncExec(() -> {
+                actionDispatcher.discardSpeculative();
                 appendSystem(err.getMessage());
                 errorLog.add(err.getMessage());
                 updateErrorCount();
@@ -417,9 +529,10 @@ public class ChatView extends ViewPart {
                 setStreamingState(false);
                 currentCancel = null;
                 if (aiResponse != null && !aiResponse.isEmpty()) {
-                    if (isOnlyAction(aiResponse)) {
+                    List<ActionRequest> actions = ActionProtocolParser.parse(aiResponse);
+                    if (isOnlyAction(aiResponse, actions)) {
                         chatHistory.add(new ChatMessage("assistant", aiResponse));
-                        actionDispatcher.handle(aiResponse);
+                        dispatchActions(actions);
                     } else {
                         recordAssistantMessageForViews(ChatProfile.TEAM_LEADER, "AI", aiResponse);
                         if (shouldRenderForProfile(ChatProfile.TEAM_LEADER)) {
@@ -428,7 +541,7 @@ public class ChatView extends ViewPart {
                             renderView();
                         }
                         chatHistory.add(new ChatMessage("assistant", aiResponse));
-                        actionDispatcher.handle(aiResponse);
+                        dispatchActions(actions);
                     }
                 }
             })
@@ -438,12 +551,14 @@ public class ChatView extends ViewPart {
 
     private void sendTeamMessage(String msg, String projectName) {
         setStreamingState(true);
-        List<ChatProfile> profiles = List.of(
-                ChatProfile.DEV_SENIOR,
-                ChatProfile.ARQ_SENIOR,
-                ChatProfile.AUDITOR_SENIOR,
-                ChatProfile.TEAM_LEADER
-        );
+        // El líder sale primero (es interactivo); las opiniones se ordenan según
+        // los modelos que Ollama ya tiene cargados para no alternar recargas.
+        List<ChatProfile> profiles = new ArrayList<>();
+        profiles.add(ChatProfile.TEAM_LEADER);
+        profiles.addAll(OllamaResidency.getDefault().order(
+                List.of(ChatProfile.DEV_SENIOR, ChatProfile.ARQ_SENIOR, ChatProfile.AUDITOR_SENIOR),
+                this::ollamaModelOf,
+                ollamaModelOf(ChatProfile.TEAM_LEADER)));
 
         AtomicInteger remaining = new AtomicInteger(profiles.size());
 
@@ -462,6 +577,9 @@ public class ChatView extends ViewPart {
 
             ChatSession session = resolveSession(profile, fallbackProvider, fallbackModel, projectName);
             int requestTokens = estimateRequestTokens(session, msg);
+            session.setPriority(profile == ChatProfile.TEAM_LEADER
+                    ? RequestPriority.INTERACTIVE
+                    : RequestPriority.TEAM_OPINION);
 
             session.sendMessageStreaming(
                 msg,
@@ -477,8 +595,11 @@ public class ChatView extends ViewPart {
                 }),
                 aiResponse -> Display.getDefault().asyncExec(() -> {
                     if (aiResponse != null && !aiResponse.isEmpty()) {
-                        if (profile == ChatProfile.TEAM_LEADER && isOnlyAction(aiResponse)) {
-                            actionDispatcher.handle(aiResponse);
+                        List<ActionRequest> actions = profile == ChatProfile.TEAM_LEADER
+                                ? ActionProtocolParser.parse(aiResponse)
+                                : List.of();
+                        if (isOnlyAction(aiResponse, actions)) {
+                            dispatchActions(actions);
                         } else {
                             recordAssistantMessageForViews(profile, profile.getDisplayName(), aiResponse);
                             if (shouldRenderForProfile(profile)) {
@@ -486,9 +607,7 @@ public class ChatView extends ViewPart {
                             } else {
                                 renderView();
                             }
-                            if (profile == ChatProfile.TEAM_LEADER) {
-                                actionDispatcher.handle(aiResponse);
-                            }
+                            dispatchActions(actions);
                         }
                     }
                     if (remaining.decrementAndGet() == 0) {
@@ -498,6 +617,7 @@ public class ChatView extends ViewPart {
                 })
             );
 
+            actionGovernor.recordRequest(requestTokens);
             addConsumedTokens(profile, requestTokens);
         }
     }
@@ -584,31 +704,29 @@ public class ChatView extends ViewPart {
         markdownRenderer.append(chatArea, text);
     }
 
-    private boolean isOnlyAction(String text) {
+    /** Texto de instrucciones internas que algunos modelos repiten al usuario. */
+    private static final String LEGACY_INSTRUCTION = "Puedes decidir si necesitas ejecutar más acciones";
+
+    private boolean isOnlyAction(String text, List<ActionRequest> actions) {
         if (text == null) return false;
-        String trimmed = text.trim();
-        // Detecta si es solo un action (línea única con [ACTION:...])
-        boolean onlyAction = trimmed.matches("^\\[ACTION:[^\\]]+].*$") ||
-               trimmed.matches("^\\[ACTION:[^\\]]+].*\\n*$");
-        // Detecta si es solo instrucciones internas
-        boolean onlyInstruction = trimmed.matches("(?s)^Puedes decidir si necesitas ejecutar más acciones.*usuario\\.?$");
-        // Detecta si es action + instrucción (en cualquier orden, con o sin saltos de línea)
-        boolean actionAndInstruction =
-            (onlyAction && trimmed.contains("Puedes decidir si necesitas ejecutar más acciones")) ||
-            (onlyInstruction && trimmed.contains("[ACTION:"));
-        return onlyAction || onlyInstruction || actionAndInstruction;
+        String rest = stripLegacyInstruction(ActionProtocolParser.stripActions(text, actions));
+        // Sólo acciones, sólo instrucciones internas o ambas cosas
+        return rest.isBlank() && (!actions.isEmpty() || text.contains(LEGACY_INSTRUCTION));
     }
 
     private String extractUserVisible(String text) {
         if (text == null) return "";
-        String result = text;
-        // Elimina líneas que sean solo [ACTION:...]
-        result = result.replaceAll("(?m)^\\[ACTION:[^\\]]+].*$", "");
-        // Elimina instrucciones internas para el modelo
-        result = result.replaceAll("(?s)Puedes decidir si necesitas ejecutar más acciones.*usuario\\.?$", "");
-        // Elimina espacios y saltos de línea sobrantes
-        result = result.replaceAll("^[ \t\r\n]+|[ \t\r\n]+$", "");
-        return result;
+        String result = ActionProtocolParser.stripActions(text, ActionProtocolParser.parse(text));
+        return stripLegacyInstruction(result).strip();
+    }
+
+    private static String stripLegacyInstruction(String text) {
+        int idx = text.indexOf(LEGACY_INSTRUCTION);
+        if (idx < 0) {
+            return text;
+        }
+        // La instrucción llega hasta el final del mensaje ("... usuario.")
+        return text.substring(0, idx);
     }
 
     private Color getCodeBlockColor(String language) {
@@ -774,6 +892,7 @@ public class ChatView extends ViewPart {
         String project = workspaceService.getActiveProjectName();
         ChatSession leader = resolveSession(ChatProfile.TEAM_LEADER, providerCombo.getText(), modelCombo.getText(), project);
         leader.loadHistory();
+        actionDispatcher.resetConversation();
         chatHistory.clear();
         chatHistory.addAll(leader.getHistory());
         resetViewMessages();
@@ -785,13 +904,19 @@ public class ChatView extends ViewPart {
     }
     
     private void showErrorLog() {
-        MessageDialog.openInformation(getSite().getShell(), "Errors", String.join("\n", errorLog));
+        String counters = ProviderMetrics.describe();
+        String body = String.join("\n", errorLog);
+        if (!counters.isEmpty()) {
+            body = body + (body.isEmpty() ? "" : "\n\n") + "Transporte:\n" + counters;
+        }
+        MessageDialog.openInformation(getSite().getShell(), "Errors", body);
     }
 
     private void cancelStreaming() {
         if (currentCancel != null) {
             currentCancel.run();
         }
+        actionDispatcher.cancel();
         currentCancel = null;
         statusInfo("Respuesta cancelada");
         setStreamingState(false);
@@ -899,6 +1024,27 @@ public class ChatView extends ViewPart {
         }
     }
 
+    private void onSchedulerStats(RequestScheduler.Stats stats) {
+        Display display = Display.getDefault();
+        if (display.isDisposed()) {
+            return;
+        }
+        display.asyncExec(() -> {
+            if (queueText == null || queueText.isDisposed()) {
+                return;
+            }
+            queueText.setText("Cola: " + stats.queued() + " · espera " + formatSeconds(stats.lastWaitMillis()));
+            String counters = ProviderMetrics.describe();
+            queueText.setToolTipText("En curso: " + stats.running()
+                    + (stats.limits().isEmpty() ? "" : "\nLímites: " + stats.limits())
+                    + (counters.isEmpty() ? "" : "\n" + counters.trim()));
+        });
+    }
+
+    private String formatSeconds(long millis) {
+        return String.format("%.1fs", millis / 1000.0);
+    }
+
     private void updateErrorCount() {
         if (errorsButton != null && !errorsButton.isDisposed()) {
             errorsButton.setText("Errors " + errorLog.size());
@@ -919,10 +1065,57 @@ public class ChatView extends ViewPart {
 
     @Override
     public void dispose() {
+        if (actionDispatcher != null) {
+            actionDispatcher.cancel();
+        }
+        RequestScheduler.getDefault().removeListener(schedulerListener);
+        ModelCatalog.getDefault().removeListener(catalogListener);
         if (monoFont != null) monoFont.dispose();
         super.dispose();
     }
 
+    /**
+     * Mientras se ejecutan las acciones del modelo, Stop las cancela.
+     */
+    private void onActionsBusy(boolean busy) {
+        if (busy) {
+            currentCancel = actionDispatcher::cancel;
+            setStreamingState(true);
+            statusInfo("Ejecutando acciones… " + actionGovernor.describe());
+        } else {
+            currentCancel = null;
+            setStreamingState(false);
+        }
+    }
+
+    /**
+     * Ejecuta las acciones de una respuesta si el gobernador de la cadena lo
+     * permite. Una respuesta sin acciones cierra la cadena.
+     */
+    private void dispatchActions(List<ActionRequest> actions) {
+        if (actions.isEmpty()) {
+            if (actionGovernor.getRoundTrips() > 0) {
+                statusInfo("Acciones: " + actionGovernor.describe());
+            }
+            return;
+        }
+        String stop = actionGovernor.admit(actions);
+        if (stop != null) {
+            stopActionChain(stop);
+            return;
+        }
+        actionDispatcher.handle(actions);
+    }
+
+    /**
+     * Corta la cadena de acciones y explica al usuario hasta dónde llegó.
+     */
+    private void stopActionChain(String reason) {
+        appendSystem("Cadena de acciones detenida: " + reason + " (" + actionGovernor.describe()
+                + "). Reformula la pregunta o amplía los límites en Preferencias si hace falta.");
+        statusInfo("Acciones detenidas: " + actionGovernor.describe());
+    }
+
     private void continueAutomatedConversation(String msg) {
         if (msg == null || msg.isBlank()) {
             return;
@@ -934,22 +1127,9 @@ public class ChatView extends ViewPart {
         ChatSession session = sessions.computeIfAbsent(profile, p ->
                 new ChatSession(p, new ChatController(new ChatHistoryStore(), workspaceService), contextBuilder));
 
-        String provider = (profile == ChatProfile.TEAM_LEADER)
-                ? fallbackProvider
-                : profileConfigService.getProvider(profile);
-
-        if (provider == null || provider.isBlank()) {
-            provider = fallbackProvider;
-        }
-
-        AiChatService service = createService(provider);
+        AiChatService service = createService(profileProvider(profile, fallbackProvider));
         if (service != null) {
-            String model = (profile == ChatProfile.TEAM_LEADER)
-                    ? fallbackModel
-                    : profileConfigService.getModel(profile);
-            if (model == null || model.isBlank()) {
-                model = fallbackModel;
-            }
+            String model = profileModel(profile, fallbackModel);
             if (model != null && !model.isBlank()) {
                 service.setModel(model);
             }
@@ -960,15 +1140,34 @@ public class ChatView extends ViewPart {
         return session;
     }
 
+    private String profileProvider(ChatProfile profile, String fallbackProvider) {
+        String provider = (profile == ChatProfile.TEAM_LEADER)
+                ? fallbackProvider
+                : profileConfigService.getProvider(profile);
+        return provider == null || provider.isBlank() ? fallbackProvider : provider;
+    }
+
+    private String profileModel(ChatProfile profile, String fallbackModel) {
+        String model = (profile == ChatProfile.TEAM_LEADER)
+                ? fallbackModel
+                : profileConfigService.getModel(profile);
+        return model == null || model.isBlank() ? fallbackModel : model;
+    }
+
+    /**
+     * Modelo de Ollama que usará el perfil, o {@code null} si usa otro proveedor.
+     */
+    private String ollamaModelOf(ChatProfile profile) {
+        String provider = profileProvider(profile, providerCombo.getText());
+        if (!"Ollama".equals(ChatServiceFactory.providerKey(provider))) {
+            return null;
+        }
+        String model = profileModel(profile, modelCombo.getText());
+        return model == null || model.isBlank() ? null : model.trim();
+    }
+
     private AiChatService createService(String provider) {
-        String name = provider == null ? "" : provider.trim();
-        return switch (name) {
-            case "OpenAI" -> new OpenAiChatService();
-            case "Gemini" -> new GeminiChatService();
-            case "Qwen" -> new QwenChatService();
-            case "DeepSeek" -> new DeepSeekChatService();
-            default -> new OllamaChatService();
-        };
+        return ChatServiceFactory.create(provider);
     }
 
     private String buildProjectKey(String projectName, ChatProfile profile) {
@@ -1096,6 +1295,7 @@ public class ChatView extends ViewPart {
             leader.clearHistory();
             clearConsumedTokens(ChatProfile.TEAM_LEADER);
         }
+        actionDispatcher.resetConversation();
         resetViewMessages();
         renderView();
         refreshTotalTokenCount();
@@ -0,0 +1,119 @@
+package com.aihelper.ui.chat;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pone límites a la cadena de acciones de un mensaje del usuario: cada
+ * resultado vuelve al modelo con todo el contexto, así que un modelo que no
+ * converge (p. ej. repitiendo {@code LIST_FILES}) gastaría tokens sin fin.
+ *
+ * La cadena se corta al superar las idas y vueltas permitidas, al agotar el
+ * presupuesto de tokens enviados o cuando el modelo sólo pide acciones que
+ * ya pidió {@link #MAX_REPEATS} veces en el mismo turno. Hay uno por
+ * mensaje del usuario y se actualiza desde el hilo de UI; sólo
+ * {@link #allowsPrefetch} se consulta desde el hilo del streaming.
+ */
+public final class ActionLoopGovernor {
+
+    /** Veces que puede pedirse la misma acción en un turno (el historial puede haberla resumido). */
+    static final int MAX_REPEATS = 2;
+
+    private final int maxRoundTrips;
+    private final int maxTokens;
+    private final Map<String, Integer> requested = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+    private volatile int roundTrips;
+    private int actionCount;
+    private volatile int uploadedTokens;
+    private volatile boolean stopped;
+
+    /** Límites de un turno, que empieza al crear el gobernador. */
+    public ActionLoopGovernor(int maxRoundTrips, int maxTokens) {
+        this.maxRoundTrips = Math.max(1, maxRoundTrips);
+        this.maxTokens = Math.max(1, maxTokens);
+    }
+
+    /** Tokens enviados en una petición del turno (la inicial incluida). */
+    public void recordRequest(int tokens) {
+        uploadedTokens += Math.max(0, tokens);
+    }
+
+    /**
+     * Decide si se ejecutan las acciones pedidas; devuelve {@code null} si
+     * se admiten o el motivo del corte.
+     */
+    public String admit(List<ActionRequest> actions) {
+        if (stopped) {
+            return "la cadena de acciones ya se detuvo";
+        }
+        if (roundTrips >= maxRoundTrips) {
+            return stop("se alcanzó el máximo de " + maxRoundTrips + " idas y vueltas");
+        }
+        boolean anyNew = false;
+        for (ActionRequest action : actions) {
+            if (requested.getOrDefault(action.key(), 0) < MAX_REPEATS) {
+                anyNew = true;
+            }
+        }
+        if (!anyNew) {
+            return stop("el modelo repite acciones ya ejecutadas (" + names(actions) + ")");
+        }
+        for (ActionRequest action : actions) {
+            requested.merge(action.key(), 1, Integer::sum);
+        }
+        roundTrips++;
+        actionCount += actions.size();
+        return null;
+    }
+
+    /**
+     * Si merece la pena adelantar {@code action} mientras llega la respuesta:
+     * el turno sigue vivo, le quedan idas y vueltas y tokens, y la acción no
+     * está ya en su máximo de repeticiones. No registra nada; la decisión
+     * real la toma {@link #admit} al terminar la respuesta.
+     */
+    public boolean allowsPrefetch(ActionRequest action) {
+        return !stopped
+                && roundTrips < maxRoundTrips
+                && uploadedTokens < maxTokens
+                && requested.getOrDefault(action.key(), 0) < MAX_REPEATS;
+    }
+
+    /**
+     * Decide si el resultado de las acciones puede enviarse al modelo, que
+     * costará {@code nextRequestTokens}; {@code null} si cabe en el presupuesto.
+     */
+    public String admitFollowUp(int nextRequestTokens) {
+        if (stopped) {
+            return "la cadena de acciones ya se detuvo";
+        }
+        if (uploadedTokens + nextRequestTokens > maxTokens) {
+            return stop("el siguiente envío superaría el presupuesto de " + maxTokens + " tokens");
+        }
+        return null;
+    }
+
+    public int getRoundTrips() {
+        return roundTrips;
+    }
+
+    /** Resumen del turno para la barra de estado. */
+    public String describe() {
+        return String.format(Locale.ROOT, "%d %s, %d %s, %.1f s, ~%d tokens enviados",
+                roundTrips, roundTrips == 1 ? "ida y vuelta" : "idas y vueltas",
+                actionCount, actionCount == 1 ? "acción" : "acciones",
+                (System.nanoTime() - startNanos) / 1e9, uploadedTokens);
+    }
+
+    private String stop(String reason) {
+        stopped = true;
+        return reason;
+    }
+
+    private static String names(List<ActionRequest> actions) {
+        return String.join(", ", actions.stream().map(ActionRequest::name).distinct().toList());
+    }
+}
@@ -0,0 +1,311 @@
+package com.aihelper.ui.chat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import com.aihelper.ai.util.JsonParser;
+
+/**
+ * Lee las acciones {@code [ACTION:NAME] ...} de una respuesta en una sola
+ * pasada, sin expresiones regulares. Admite las dos formas del protocolo:
+ * {@code clave=valor} (valores entre comillas si llevan espacios) en la
+ * misma línea, y un objeto JSON tras la etiqueta, que puede ocupar varias
+ * líneas. Los parámetros desconocidos o mal formados se saltan sin invalidar
+ * la acción.
+ */
+public final class ActionProtocolParser {
+
+    private static final String TAG = "[ACTION:";
+    private static final int MAX_NAME_LENGTH = 64;
+    private static final int MAX_JSON_LENGTH = 8192;
+
+    private ActionProtocolParser() {}
+
+    public static List<ActionRequest> parse(String text) {
+        List<ActionRequest> actions = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return actions;
+        }
+        int length = text.length();
+        boolean lineBlank = true;
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                lineBlank = true;
+                i++;
+                continue;
+            }
+            if (c == '[' && text.regionMatches(true, i, TAG, 0, TAG.length())) {
+                ActionRequest action = readAction(text, i, lineBlank);
+                if (action != null) {
+                    actions.add(action);
+                    i = action.end();
+                    lineBlank = false;
+                    continue;
+                }
+            }
+            if (!Character.isWhitespace(c)) {
+                lineBlank = false;
+            }
+            i++;
+        }
+        return actions;
+    }
+
+    /**
+     * ¿Es {@code line} (ya recortada) el comienzo de una línea de acción?
+     */
+    public static boolean isActionLine(String line) {
+        return line != null
+                && line.regionMatches(true, 0, TAG, 0, TAG.length())
+                && line.indexOf(']', TAG.length()) > TAG.length();
+    }
+
+    /**
+     * ¿Puede {@code partial} (sin espacios iniciales) acabar siendo una acción?
+     */
+    public static boolean couldStartAction(String partial) {
+        int length = Math.min(partial.length(), TAG.length());
+        return partial.regionMatches(true, 0, TAG, 0, length);
+    }
+
+    /**
+     * ¿Sigue abierta la acción que empieza en {@code line}? Ocurre cuando
+     * tras la etiqueta empieza un objeto JSON que aún no se ha cerrado.
+     */
+    public static boolean isPending(String line) {
+        int close = line.indexOf(']');
+        if (close < 0) {
+            return false;
+        }
+        int pos = skipBlanks(line, close + 1);
+        return pos < line.length() && line.charAt(pos) == '{'
+                && line.length() - pos < MAX_JSON_LENGTH && matchBrace(line, pos) < 0;
+    }
+
+    /**
+     * Quita de {@code text} las líneas ocupadas por acciones propias; las
+     * acciones en mitad de una frase se dejan como texto.
+     */
+    public static String stripActions(String text, List<ActionRequest> actions) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        int copied = 0;
+        for (ActionRequest action : actions) {
+            if (!action.standalone() || action.start() < copied) {
+                continue;
+            }
+            int lineStart = text.lastIndexOf('\n', action.start() - 1) + 1;
+            int lineEnd = text.indexOf('\n', Math.max(action.end() - 1, action.start()));
+            sb.append(text, copied, lineStart);
+            copied = lineEnd < 0 ? text.length() : lineEnd;
+        }
+        sb.append(text, copied, text.length());
+        return sb.toString();
+    }
+
+    /**
+     * Verdadero si la respuesta no contiene nada más que líneas de acción.
+     */
+    public static boolean isOnlyActions(String text, List<ActionRequest> actions) {
+        return !actions.isEmpty() && stripActions(text, actions).isBlank();
+    }
+
+    private static ActionRequest readAction(String text, int start, boolean standalone) {
+        int nameStart = start + TAG.length();
+        int close = nameStart;
+        while (close < text.length() && close - nameStart <= MAX_NAME_LENGTH) {
+            char c = text.charAt(close);
+            if (c == ']') {
+                break;
+            }
+            if (!(Character.isLetterOrDigit(c) || c == '_' || c == ' ')) {
+                return null;
+            }
+            close++;
+        }
+        if (close >= text.length() || text.charAt(close) != ']') {
+            return null;
+        }
+        String name = text.substring(nameStart, close).trim().toUpperCase(Locale.ROOT);
+        if (name.isEmpty()) {
+            return null;
+        }
+
+        Map<String, String> params = new LinkedHashMap<>();
+        Set<String> spilled = new HashSet<>();
+        int pos = skipBlanks(text, close + 1);
+        int end;
+        if (pos < text.length() && text.charAt(pos) == '{') {
+            int jsonEnd = matchBrace(text, pos);
+            if (jsonEnd > 0) {
+                readJson(text.substring(pos, jsonEnd), params);
+                end = jsonEnd;
+            } else {
+                end = close + 1;
+            }
+        } else {
+            end = readKeyValues(text, close + 1, params, spilled);
+        }
+        return new ActionRequest(name, params, start, end, standalone, spilled);
+    }
+
+    /**
+     * Pares {@code clave=valor} hasta el final de la línea o la siguiente
+     * etiqueta; devuelve la posición tras el último par leído. Las claves
+     * sin comillas seguidas de palabras sueltas se anotan en {@code spilled}.
+     */
+    private static int readKeyValues(String text, int from, Map<String, String> params, Set<String> spilled) {
+        int length = text.length();
+        int pos = from;
+        int end = from;
+        String unquoted = null;
+        while (true) {
+            pos = skipBlanks(text, pos);
+            if (pos >= length || text.charAt(pos) == '\n' || text.charAt(pos) == '\r'
+                    || text.regionMatches(true, pos, TAG, 0, TAG.length())) {
+                return end;
+            }
+            int keyStart = pos;
+            while (pos < length && (Character.isLetterOrDigit(text.charAt(pos)) || text.charAt(pos) == '_')) {
+                pos++;
+            }
+            if (pos == keyStart || pos >= length || text.charAt(pos) != '=') {
+                // Token que no es clave=valor: se salta
+                if (unquoted != null) {
+                    spilled.add(unquoted);
+                }
+                pos = skipToken(text, Math.max(pos, keyStart + 1));
+                continue;
+            }
+            String key = text.substring(keyStart, pos).toLowerCase(Locale.ROOT);
+            pos++;
+            String value;
+            unquoted = null;
+            if (pos < length && text.charAt(pos) == '"') {
+                int closing = indexInLine(text, '"', pos + 1);
+                if (closing < 0) {
+                    value = text.substring(pos + 1, lineEnd(text, pos)).trim();
+                    pos = lineEnd(text, pos);
+                } else {
+                    value = text.substring(pos + 1, closing);
+                    pos = closing + 1;
+                }
+            } else {
+                int valueEnd = skipToken(text, pos);
+                value = text.substring(pos, valueEnd);
+                pos = valueEnd;
+                unquoted = key;
+            }
+            params.putIfAbsent(key, value);
+            end = pos;
+        }
+    }
+
+    private static void readJson(String json, Map<String, String> params) {
+        Map<String, Object> object = JsonParser.parseObject(json);
+        if (object == null) {
+            return;
+        }
+        object.forEach((key, value) -> {
+            String text = value instanceof List<?> list ? joinScalars(list) : scalar(value);
+            if (text != null) {
+                params.putIfAbsent(key.toLowerCase(Locale.ROOT), text);
+            }
+        });
+    }
+
+    /**
+     * Una lista de valores simples se une con {@code ,}, igual que se
+     * escribe en la forma clave=valor ({@code paths=a,b}); {@code null} si
+     * contiene objetos o listas.
+     */
+    private static String joinScalars(List<?> list) {
+        StringJoiner joined = new StringJoiner(",");
+        for (Object item : list) {
+            String text = scalar(item);
+            if (text == null) {
+                return null;
+            }
+            joined.add(text);
+        }
+        return joined.toString();
+    }
+
+    private static String scalar(Object value) {
+        if (value == null || value instanceof Map || value instanceof List) {
+            return null;
+        }
+        return value instanceof Double d && d == Math.rint(d)
+                ? Long.toString(d.longValue())
+                : value.toString();
+    }
+
+    /**
+     * Posición tras la llave que cierra la abierta en {@code open}, respetando
+     * cadenas; {@code -1} si no se cierra a tiempo.
+     */
+    private static int matchBrace(String text, int open) {
+        int depth = 0;
+        boolean inString = false;
+        int limit = Math.min(text.length(), open + MAX_JSON_LENGTH);
+        for (int i = open; i < limit; i++) {
+            char c = text.charAt(i);
+            if (inString) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipBlanks(String text, int pos) {
+        while (pos < text.length() && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipToken(String text, int pos) {
+        while (pos < text.length() && !Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int indexInLine(String text, char target, int from) {
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == target) {
+                return i;
+            }
+            if (c == '\n') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static int lineEnd(String text, int from) {
+        int newline = text.indexOf('\n', from);
+        return newline < 0 ? text.length() : newline;
+    }
+}
@@ -0,0 +1,89 @@
+package com.aihelper.ui.chat;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+import com.aihelper.ai.util.JsonHelper;
+
+/**
+ * Acción pedida por el modelo, tal como la reconoce {@link ActionProtocolParser}.
+ *
+ * @param name       nombre en mayúsculas ({@code READ_FILE}, ...)
+ * @param params     parámetros con la clave en minúsculas y sin comillas
+ * @param start      posición de {@code [ACTION:} en la respuesta
+ * @param end        posición tras el último parámetro
+ * @param standalone si la acción ocupa su propia línea (sólo espacios antes)
+ * @param spilled    claves cuyo valor sin comillas iba seguido de palabras
+ *                   sueltas: seguramente un valor con espacios que se cortó
+ */
+public record ActionRequest(String name, Map<String, String> params, int start, int end, boolean standalone,
+        Set<String> spilled) {
+
+    public ActionRequest {
+        params = Map.copyOf(params);
+        spilled = Set.copyOf(spilled);
+    }
+
+    public String param(String key) {
+        String value = params.get(key);
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    public int intParam(String key, int defaultValue) {
+        String value = param(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ignored) {
+            return defaultValue;
+        }
+    }
+
+    public boolean hasParams(String... keys) {
+        for (String key : keys) {
+            if (param(key) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Identidad de la acción (nombre y parámetros, sin posición): dos
+     * peticiones con la misma clave producen el mismo resultado.
+     */
+    public String key() {
+        return name + new TreeMap<>(params);
+    }
+
+    /**
+     * Forma canónica {@code [ACTION:NAME] k=v ...}, apta para el historial.
+     * Si algún valor lleva comillas o saltos de línea, que {@code k=v} no
+     * puede expresar, se usa la forma JSON.
+     */
+    public String toLine() {
+        StringBuilder sb = new StringBuilder("[ACTION:").append(name).append(']');
+        Map<String, String> sorted = new TreeMap<>(params);
+        boolean json = sorted.values().stream()
+                .anyMatch(value -> value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0);
+        if (json) {
+            StringJoiner fields = new StringJoiner(",", " {", "}");
+            sorted.forEach((key, value) ->
+                    fields.add('"' + JsonHelper.escape(key) + "\":\"" + JsonHelper.escape(value) + '"'));
+            return sb.append(fields).toString();
+        }
+        sorted.forEach((key, value) -> {
+            sb.append(' ').append(key).append('=');
+            if (value.chars().anyMatch(Character::isWhitespace)) {
+                sb.append('"').append(value).append('"');
+            } else {
+                sb.append(value);
+            }
+        });
+        return sb.toString();
+    }
+}
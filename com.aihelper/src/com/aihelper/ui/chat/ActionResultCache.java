@@ -0,0 +1,68 @@
+package com.aihelper.ui.chat;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Últimos resultados de acciones entregados al modelo en la conversación,
+ * por acción y argumentos ({@link ActionRequest#key()}).
+ *
+ * Un resultado se prepara al ejecutar la acción y sólo cuenta como
+ * entregado cuando el mensaje llega al modelo: lo adelantado que la
+ * respuesta final no pidió, o lo cancelado, no debe servir de base para un
+ * "sin cambios".
+ */
+final class ActionResultCache {
+
+    /** Contenido entregado como resultado {@code #id} y sello del archivo al leerlo. */
+    record Entry(int id, long stamp, String content) {
+        Entry withStamp(long newStamp) {
+            return new Entry(id, newStamp, content);
+        }
+    }
+
+    /** Sello de los resultados que no dependen de un único archivo. */
+    static final long NO_STAMP = -1;
+
+    private final Map<String, Entry> delivered = new ConcurrentHashMap<>();
+    private final Map<String, Entry> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    Entry get(String key) {
+        return delivered.get(key);
+    }
+
+    /** Prepara un resultado nuevo y le asigna número. */
+    Entry stage(String key, long stamp, String content) {
+        return stage(key, new Entry(lastId.incrementAndGet(), stamp, content));
+    }
+
+    Entry stage(String key, Entry entry) {
+        pending.put(key, entry);
+        return entry;
+    }
+
+    /** El resultado preparado para {@code key} ya está en la conversación. */
+    void commit(String key) {
+        Entry entry = pending.remove(key);
+        if (entry != null) {
+            delivered.put(key, entry);
+        }
+    }
+
+    /** Olvida {@code key} (p. ej. porque el modelo lo recibió recortado). */
+    void forget(String key) {
+        pending.remove(key);
+        delivered.remove(key);
+    }
+
+    void discardPending(String key) {
+        pending.remove(key);
+    }
+
+    void clear() {
+        pending.clear();
+        delivered.clear();
+    }
+}
@@ -0,0 +1,94 @@
+package com.aihelper.ui.chat;
+
+/**
+ * Reconoce acciones {@code [ACTION:...]} completas a medida que llegan los
+ * fragmentos de una respuesta.
+ *
+ * Cada línea de acción terminada se notifica enseguida para poder ejecutarla
+ * en especulativo, pero sólo mientras la respuesta sea de acciones: una vez
+ * que aparece prosa, las líneas de acción que siga citando (ejemplos en una
+ * explicación) ya no se notifican. Si la respuesta empezó con acciones y el modelo pasa a
+ * escribir otra cosa (o llega al máximo de acciones por lote), el turno ya
+ * está decidido: se notifica con el texto hasta la última acción para cortar
+ * la generación y no esperar al resto.
+ */
+public final class ActionStreamDetector {
+
+    public interface Listener {
+        /** Línea de acción completa (sin espacios alrededor). */
+        void onAction(String line);
+
+        /** Turno sólo de acciones ya completo; {@code response} acaba en la última. */
+        void onActionTurnComplete(String response);
+    }
+
+    private final int maxActions;
+    private final Listener listener;
+    private final StringBuilder text = new StringBuilder();
+    private int lineStart;
+    private int pendingStart = -1;
+    private int actions;
+    private int actionsEnd;
+    private boolean prose;
+    private boolean stopped;
+
+    public ActionStreamDetector(int maxActions, Listener listener) {
+        this.maxActions = maxActions;
+        this.listener = listener;
+    }
+
+    public synchronized void accept(String chunk) {
+        if (stopped || chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        text.append(chunk);
+        int newline;
+        while (!stopped && (newline = text.indexOf("\n", lineStart)) >= 0) {
+            int start = pendingStart >= 0 ? pendingStart : lineStart;
+            String line = text.substring(start, newline).trim();
+            lineStart = newline + 1;
+            if (ActionProtocolParser.isActionLine(line) && ActionProtocolParser.isPending(line)) {
+                // Forma JSON en varias líneas: la acción acaba al cerrar la llave
+                pendingStart = start;
+                continue;
+            }
+            pendingStart = -1;
+            classify(line, lineStart);
+        }
+        if (!stopped && actions > 0 && !prose && pendingStart < 0) {
+            // Basta el comienzo de la línea para saber que ya no es una acción
+            String partial = text.substring(lineStart).stripLeading();
+            if (!partial.isEmpty() && !ActionProtocolParser.couldStartAction(partial)) {
+                stop();
+            }
+        }
+    }
+
+    private void classify(String line, int end) {
+        if (line.isEmpty()) {
+            return;
+        }
+        if (!ActionProtocolParser.isActionLine(line)) {
+            if (actions > 0 && !prose) {
+                stop();
+            } else {
+                prose = true;
+            }
+            return;
+        }
+        if (prose) {
+            return;
+        }
+        listener.onAction(line);
+        actions++;
+        actionsEnd = end;
+        if (actions >= maxActions) {
+            stop();
+        }
+    }
+
+    private void stop() {
+        stopped = true;
+        listener.onActionTurnComplete(text.substring(0, actionsEnd));
+    }
+}
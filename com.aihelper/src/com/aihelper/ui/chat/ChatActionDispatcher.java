@@ -1,14 +1,44 @@
 package com.aihelper.ui.chat;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
-import java.util.regex.Matcher;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
-
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.preference.IPreferenceStore;
 
 import com.aihelper.preferences.CredentialsService;
 import com.aihelper.preferences.PreferenceConstants;
+import com.aihelper.workspace.DiffService;
+import com.aihelper.workspace.EditorSnapshot;
+import com.aihelper.workspace.GrepService;
+import com.aihelper.workspace.OutlineService;
+import com.aihelper.workspace.TreeEncoder;
 import com.aihelper.workspace.WorkspaceService;
 
 /**
@@ -16,213 +46,804 @@ import com.aihelper.workspace.WorkspaceService;
  */
 public class ChatActionDispatcher {
 
-    private static final int ACTION_RESULT_CHAR_LIMIT = 4000;
+    /** Caracteres máximos del contenido de un resultado. */
+    public static final int ACTION_RESULT_CHAR_LIMIT = 4000;
+    /** Acciones máximas por respuesta; el resto se ignora. */
+    public static final int MAX_BATCH_ACTIONS = 8;
+    /** Acciones soportadas y sus parámetros obligatorios. */
+    private static final Map<String, String[]> REQUIRED_PARAMS = new LinkedHashMap<>();
+    static {
+        REQUIRED_PARAMS.put("READ_FILE", new String[] { "project", "path" });
+        REQUIRED_PARAMS.put("READ_FILE_RANGE", new String[] { "project", "path", "start", "end" });
+        REQUIRED_PARAMS.put("READ_FILES", new String[] { "project" });
+        REQUIRED_PARAMS.put("READ_OUTLINE", new String[] { "project", "path" });
+        REQUIRED_PARAMS.put("READ_ACTIVE_FILE", new String[0]);
+        REQUIRED_PARAMS.put("READ_ACTIVE_SELECTION", new String[0]);
+        REQUIRED_PARAMS.put("READ_PROJECT", new String[0]);
+        REQUIRED_PARAMS.put("READ_PROJECT_FULL", new String[] { "project" });
+        REQUIRED_PARAMS.put("LIST_FILES", new String[] { "project" });
+        REQUIRED_PARAMS.put("LIST_OPEN_FILES", new String[0]);
+        REQUIRED_PARAMS.put("SEARCH_TEXT", new String[] { "project", "query" });
+        REQUIRED_PARAMS.put("GREP", new String[] { "project", "pattern" });
+    }
+    private static final Set<String> EDITOR_ACTIONS = Set.of("READ_ACTIVE_FILE", "READ_ACTIVE_SELECTION", "LIST_OPEN_FILES");
+
+    /** Caracteres máximos de un mensaje de resultados por lotes. */
+    public static final int BATCH_CHAR_BUDGET = 12000;
 
-    private static final Pattern READ_FILE_KV = Pattern.compile(
-        "\\[ACTION:READ_FILE\\]\\s*project=([^\\s\"]+|\"[^\"]+\")\\s+path=([^\\s\"]+|\"[^\"]+\")",
-        Pattern.CASE_INSENSITIVE
-    );
+    /** Familia de los Jobs de acciones, para esperarlos o cancelarlos en bloque. */
+    public static final Object JOB_FAMILY = ChatActionDispatcher.class;
 
-    private static final Pattern READ_FILE_JSON = Pattern.compile(
-        "\\[ACTION:READ_FILE\\]\\s*\\{[^}]*\"project\"\\s*:\\s*\"([^\"]+)\"[^}]*\"path\"\\s*:\\s*\"([^\"]+)\"[^}]*\\}",
-        Pattern.CASE_INSENSITIVE
-    );
+    private static final long CANCEL_POLL_MILLIS = 100;
 
-    private static final Pattern LIST_FILES_PATTERN = Pattern.compile(
-        "\\[ACTION:LIST_FILES\\]\\s*project=([^\\s\"]+|\"[^\"]+\")(?:\\s+depth=(\\d+))?(?:\\s+limit=(\\d+))?",
-        Pattern.CASE_INSENSITIVE
-    );
+    /** Líneas cambiadas a partir de las cuales se reenvía el contenido entero. */
+    private static final int MAX_DIFF_EDITS = 400;
 
-    private static final Pattern SEARCH_TEXT_PATTERN = Pattern.compile(
-        "\\[ACTION:SEARCH_TEXT\\]\\s*project=([^\\s\"]+|\"[^\"]+\")\\s+query=([^\\s\"]+|\"[^\"]+\")(?:\\s+limit=(\\d+))?",
-        Pattern.CASE_INSENSITIVE
-    );
+    /** Ejecutor acotado compartido para las acciones. */
+    private static final ExecutorService ACTION_EXECUTOR = createExecutor("AI Helper actions");
 
-    private static final Pattern READ_FILE_RANGE_PATTERN = Pattern.compile(
-        "\\[ACTION:READ_FILE_RANGE\\].*project=([^\\s\"]+|\"[^\"]+\")\\s+path=([^\\s\"]+|\"[^\"]+\")\\s+start=(\\d+)\\s+end=(\\d+)",
-        Pattern.CASE_INSENSITIVE
-    );
+    /**
+     * Lecturas de archivos de {@code READ_FILES} y {@code GREP}: aparte del de acciones, que
+     * ya está ocupado por la acción que las espera.
+     */
+    private static final ExecutorService FILE_READ_EXECUTOR = createExecutor("AI Helper file reads");
 
-    private static final Pattern READ_FILE_RANGE_JSON = Pattern.compile(
-        "\\[ACTION:READ_FILE_RANGE\\]\\s*\\{[^}]*\"project\"\\s*:\\s*\"([^\"]+)\"[^}]*\"path\"\\s*:\\s*\"([^\"]+)\"[^}]*\"start\"\\s*:\\s*(\\d+)\\s*[^}]*\"end\"\\s*:\\s*(\\d+)\\s*[^}]*\\}",
-        Pattern.CASE_INSENSITIVE
-    );
+    /** Caracteres máximos de un esquema ({@code READ_OUTLINE}). */
+    private static final int OUTLINE_CHAR_LIMIT = 2 * ACTION_RESULT_CHAR_LIMIT;
 
-    private static final Pattern READ_ACTIVE_FILE_PATTERN = Pattern.compile("\\[ACTION:READ_ACTIVE_FILE\\]", Pattern.CASE_INSENSITIVE);
-    private static final Pattern READ_ACTIVE_SELECTION_PATTERN = Pattern.compile("\\[ACTION:READ_ACTIVE_SELECTION\\]", Pattern.CASE_INSENSITIVE);
-    private static final Pattern LIST_OPEN_FILES_PATTERN = Pattern.compile("\\[ACTION:LIST_OPEN_FILES\\]", Pattern.CASE_INSENSITIVE);
-    private static final Pattern READ_PROJECT_PATTERN = Pattern.compile("\\[ACTION:READ_PROJECT\\]", Pattern.CASE_INSENSITIVE);
-    private static final Pattern READ_PROJECT_FULL_PATTERN = Pattern.compile("\\[ACTION:READ_PROJECT_FULL\\]\\s*project=([^\\s\"]+|\"[^\"]+\")", Pattern.CASE_INSENSITIVE);
+    /** Archivos máximos de un {@code READ_FILES}. */
+    private static final int MAX_READ_FILES = 20;
+
+    /**
+     * Archivos máximos que recorre un {@code GREP}. Se leen por tandas para
+     * no tener el proyecto entero en memoria.
+     */
+    private static final int MAX_GREP_FILES = 2000;
+    private static final int GREP_CHUNK = 64;
+    private static final int MAX_GREP_CONTEXT = 10;
+    private static final int MAX_GREP_PER_FILE = 50;
+    /** Archivos más grandes no se leen para GREP. */
+    private static final long MAX_GREP_FILE_BYTES = 1024 * 1024;
+
+    /** Rutas máximas que se reúnen para paginar un listado. */
+    private static final int MAX_LISTED_PATHS = 20000;
 
     private final WorkspaceService workspaceService;
     private final Consumer<String> automatedSender;
+    private final Executor resultExecutor;
     private final IPreferenceStore preferenceStore = CredentialsService.preferenceStore();
-    private final List<ActionHandler> handlers;
+    private final ISchedulingRule conversationRule = new ConversationRule();
+    private final AtomicReference<ActionJob> currentJob = new AtomicReference<>();
+    private final Map<String, Future<String>> speculative = new ConcurrentHashMap<>();
+    private final ActionResultCache resultCache = new ActionResultCache();
+    private final DiffService diffService = new DiffService();
+    private final OutlineService outlineService = new OutlineService();
+    private final GrepService grepService = new GrepService();
+    private final TreeEncoder treeEncoder = new TreeEncoder();
+    private volatile Consumer<Boolean> busyListener = busy -> {};
 
     public ChatActionDispatcher(WorkspaceService workspaceService, Consumer<String> automatedSender) {
+        this(workspaceService, automatedSender, Runnable::run);
+    }
+
+    /**
+     * @param resultExecutor hilo en el que se entrega el resultado de las
+     *        acciones, que se ejecutan en segundo plano (en la vista, el hilo de UI)
+     */
+    public ChatActionDispatcher(WorkspaceService workspaceService, Consumer<String> automatedSender,
+            Executor resultExecutor) {
         this.workspaceService = workspaceService;
         this.automatedSender = automatedSender;
-        this.handlers = List.of(
-            this::handleReadFileRange,
-            this::handleReadFile,
-            this::handleReadActiveFile,
-            this::handleReadActiveSelection,
-            this::handleReadProject,
-            this::handleListFiles,
-            this::handleSearchText,
-            this::handleListOpenFiles,
-            this::handleReadProjectFull // Nuevo handler
-        );
+        this.resultExecutor = resultExecutor;
+    }
+
+    public void setBusyListener(Consumer<Boolean> busyListener) {
+        this.busyListener = busyListener == null ? busy -> {} : busyListener;
     }
 
+    /**
+     * Programa las acciones de la respuesta en un {@link Job}. El estado de
+     * los editores se copia antes, en el hilo que llama (UI); el resto de
+     * lecturas se hace en segundo plano. Una acción devuelve su resultado
+     * como siempre; varias se ejecutan en paralelo y vuelven al modelo en un
+     * único mensaje {@code [ACTION_RESULT:BATCH]}. Una respuesta nueva cancela
+     * las acciones pendientes de la anterior.
+     */
     public void handle(String assistantResponse) {
         if (assistantResponse == null || assistantResponse.isBlank()) {
             return;
         }
-        for (ActionHandler handler : handlers) {
-            if (handler.tryHandle(assistantResponse)) {
+        handle(ActionProtocolParser.parse(assistantResponse));
+    }
+
+    /**
+     * Como {@link #handle(String)} con las acciones ya leídas por
+     * {@link ActionProtocolParser}.
+     */
+    public void handle(List<ActionRequest> requested) {
+        List<ActionRequest> actions = distinct(requested);
+        if (actions.isEmpty()) {
+            return;
+        }
+        List<ActionRequest> accepted = actions.size() > MAX_BATCH_ACTIONS
+                ? List.copyOf(actions.subList(0, MAX_BATCH_ACTIONS))
+                : actions;
+        EditorSnapshot editors = accepted.stream().anyMatch(ChatActionDispatcher::needsEditorState)
+                ? workspaceService.snapshotEditors()
+                : EditorSnapshot.EMPTY;
+
+        ActionJob job = new ActionJob(accepted, actions.size() - accepted.size(), editors);
+        ActionJob previous = currentJob.getAndSet(job);
+        if (previous != null) {
+            previous.cancel();
+        }
+        busyListener.accept(true);
+        job.schedule();
+    }
+
+    /**
+     * Cancela las acciones en curso; su resultado ya no se envía al modelo.
+     */
+    public void cancel() {
+        ActionJob job = currentJob.getAndSet(null);
+        if (job != null) {
+            job.cancel();
+        }
+        discardSpeculative();
+    }
+
+    /**
+     * Empieza una conversación nueva: cancela lo pendiente y olvida los
+     * resultados entregados, que el modelo ya no tiene en su historial.
+     */
+    public void resetConversation() {
+        cancel();
+        resultCache.clear();
+    }
+
+    /**
+     * Empieza a ejecutar una línea de acción detectada mientras la respuesta
+     * aún llega. {@link #handle} reutiliza el resultado si la respuesta final
+     * contiene la misma acción; si no, se descarta. No se adelantan las
+     * acciones incompletas (p. ej. JSON que sigue en otra línea) ni las que
+     * leen el estado de los editores, que necesitan el hilo de UI. Como
+     * mucho se adelantan {@link #MAX_BATCH_ACTIONS} y sólo las que
+     * {@code admitted} acepta (el presupuesto del turno).
+     */
+    public void prefetch(String actionLine, Predicate<ActionRequest> admitted) {
+        for (ActionRequest action : ActionProtocolParser.parse(actionLine)) {
+            if (needsEditorState(action) || !isComplete(action) || !admitted.test(action)) {
+                continue;
+            }
+            if (speculative.size() >= MAX_BATCH_ACTIONS && !speculative.containsKey(action.key())) {
                 return;
             }
+            speculative.computeIfAbsent(action.key(),
+                    k -> ACTION_EXECUTOR.submit(() -> executeSafely(action, EditorSnapshot.EMPTY)));
         }
     }
 
-    private String nextStepMessage(String actionResult) {
-        return actionResult +
-            "\n\nUsa este resultado. Si todavía necesitas información, responde con exactamente una acción. Si ya puedes responder, contesta al usuario directamente y no expliques las acciones.";
+    private Future<String> takeSpeculative(ActionRequest action) {
+        return speculative.remove(action.key());
     }
 
-    private boolean handleReadFile(String text) {
-        String project = null;
-        String path = null;
+    /**
+     * Descarta lo adelantado que ninguna respuesta llegó a pedir (p. ej.
+     * porque el stream falló): su resultado puede ser de antes de que el
+     * usuario editara y no debe servir a un turno posterior.
+     */
+    public void discardSpeculative() {
+        speculative.forEach((key, future) -> {
+            future.cancel(true);
+            resultCache.discardPending(key);
+        });
+        speculative.clear();
+    }
 
-        Matcher json = READ_FILE_JSON.matcher(text);
-        if (json.find()) {
-            project = json.group(1);
-            path = json.group(2);
-        } else {
-            Matcher kv = READ_FILE_KV.matcher(text);
-            if (kv.find()) {
-                project = stripQuotes(kv.group(1));
-                path = stripQuotes(kv.group(2));
-            }
+    private static List<ActionRequest> distinct(List<ActionRequest> actions) {
+        Map<String, ActionRequest> unique = new LinkedHashMap<>();
+        for (ActionRequest action : actions) {
+            unique.putIfAbsent(action.key(), action);
         }
+        return new ArrayList<>(unique.values());
+    }
 
-        if (project == null || path == null) {
-            return false;
+    private static boolean needsEditorState(ActionRequest action) {
+        return EDITOR_ACTIONS.contains(action.name());
+    }
+
+    private static boolean isComplete(ActionRequest action) {
+        String[] required = REQUIRED_PARAMS.get(action.name());
+        return required != null && action.hasParams(required);
+    }
+
+    private String execute(ActionRequest action, EditorSnapshot editors) {
+        String[] required = REQUIRED_PARAMS.get(action.name());
+        if (required == null) {
+            return buildErrorResult(action, "Acción no soportada. Acciones disponibles: " + String.join(", ", REQUIRED_PARAMS.keySet()));
+        }
+        if (!action.hasParams(required)) {
+            return buildErrorResult(action, "Faltan parámetros. Obligatorios: " + String.join(", ", required));
         }
+        return switch (action.name()) {
+            case "READ_FILE" -> readFile(action);
+            case "READ_FILE_RANGE" -> readFileRange(action);
+            case "READ_FILES" -> readFiles(action);
+            case "READ_OUTLINE" -> readOutline(action);
+            case "READ_ACTIVE_FILE" -> readActiveFile(editors);
+            case "READ_ACTIVE_SELECTION" -> readActiveSelection(editors);
+            case "READ_PROJECT" -> "Snapshot del proyecto:\n" + workspaceService.readWorkspaceSnapshot(ACTION_RESULT_CHAR_LIMIT);
+            case "READ_PROJECT_FULL" -> readProjectFull(action);
+            case "LIST_FILES" -> listFiles(action);
+            case "LIST_OPEN_FILES" -> "Archivos abiertos:\n" + editors.openFiles();
+            case "SEARCH_TEXT" -> searchText(action);
+            case "GREP" -> grep(action);
+            default -> null;
+        };
+    }
 
-        String content = workspaceService.readFile(project, path);
-        if (content == null || content.isBlank()) {
-            automatedSender.accept(nextStepMessage(buildMissingResult("READ_FILE", project, path, "Archivo no encontrado o vacío")));
-            return true;
+    private String executeSafely(ActionRequest action, EditorSnapshot editors) {
+        try {
+            return execute(action, editors);
+        } catch (OperationCanceledException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return buildErrorResult(action, "Error al ejecutar la acción: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ejecución en segundo plano de las acciones de una respuesta.
+     *
+     * No toma reglas de recursos: son lecturas y no deben bloquear builds ni
+     * refrescos; la regla exclusiva del dispatcher sólo impide que dos turnos
+     * de la misma conversación se solapen. Las acciones corren en el ejecutor
+     * acotado y el Job espera comprobando la cancelación, de modo que Stop
+     * interrumpe los recorridos largos.
+     */
+    private final class ActionJob extends Job {
+
+        private final List<ActionRequest> actions;
+        private final int skipped;
+        private final EditorSnapshot editors;
+
+        ActionJob(List<ActionRequest> actions, int skipped, EditorSnapshot editors) {
+            super("AI Helper: " + describe(actions));
+            this.actions = actions;
+            this.skipped = skipped;
+            this.editors = editors;
+            setRule(conversationRule);
+            setPriority(Job.SHORT);
         }
 
-        automatedSender.accept(nextStepMessage(buildFileResult("READ_FILE", project, path, null, null, content)));
-        return true;
+        @Override
+        public boolean belongsTo(Object family) {
+            return family == JOB_FAMILY;
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            SubMonitor progress = SubMonitor.convert(monitor, getName(), actions.size());
+            List<Future<String>> futures = new ArrayList<>();
+            for (ActionRequest action : actions) {
+                Future<String> early = takeSpeculative(action);
+                futures.add(early != null
+                        ? early
+                        : ACTION_EXECUTOR.submit(() -> executeSafely(action, editors)));
+            }
+            // Lo adelantado que la respuesta final no pidió ya no sirve
+            discardSpeculative();
+
+            List<ActionRequest> answered = new ArrayList<>();
+            List<String> bodies = new ArrayList<>();
+            try {
+                for (int i = 0; i < actions.size(); i++) {
+                    progress.subTask(actions.get(i).name());
+                    String result = await(futures.get(i), progress);
+                    if (result != null) {
+                        answered.add(actions.get(i));
+                        bodies.add(result);
+                    }
+                    progress.worked(1);
+                }
+            } catch (OperationCanceledException e) {
+                futures.forEach(future -> future.cancel(true));
+                actions.forEach(action -> resultCache.discardPending(action.key()));
+                return Status.CANCEL_STATUS;
+            }
+
+            String message;
+            if (bodies.isEmpty()) {
+                message = null;
+            } else if (actions.size() == 1) {
+                message = nextStepMessage(bodies.get(0));
+            } else {
+                message = nextStepMessage(buildBatchResult(answered, bodies, skipped));
+            }
+            resultExecutor.execute(() -> {
+                if (currentJob.compareAndSet(this, null)) {
+                    busyListener.accept(false);
+                    if (message != null) {
+                        answered.forEach(action -> resultCache.commit(action.key()));
+                        automatedSender.accept(message);
+                    }
+                }
+            });
+            return Status.OK_STATUS;
+        }
+
+        private String await(Future<String> future, IProgressMonitor monitor) {
+            while (true) {
+                if (monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                try {
+                    return future.get(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // seguir esperando
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof OperationCanceledException cancelled) {
+                        throw cancelled;
+                    }
+                    return null;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new OperationCanceledException();
+                }
+            }
+        }
     }
 
-    private boolean handleReadProject(String text) {
-        if (!READ_PROJECT_PATTERN.matcher(text).find()) {
-            return false;
+    /**
+     * Regla exclusiva por conversación (sólo entra en conflicto consigo misma).
+     */
+    private static final class ConversationRule implements ISchedulingRule {
+        @Override
+        public boolean contains(ISchedulingRule rule) {
+            return rule == this;
+        }
+
+        @Override
+        public boolean isConflicting(ISchedulingRule rule) {
+            return rule == this;
         }
-        automatedSender.accept(nextStepMessage("Snapshot del proyecto:\n" + workspaceService.readWorkspaceSnapshot()));
-        return true;
     }
 
-    private boolean handleListFiles(String text) {
-        Matcher matcher = LIST_FILES_PATTERN.matcher(text);
-        if (!matcher.find()) {
-            return false;
+    private static String describe(List<ActionRequest> actions) {
+        return actions.size() == 1
+                ? "acción " + actions.get(0).name()
+                : actions.size() + " acciones";
+    }
+
+    /**
+     * Junta los resultados de un lote repartiendo {@link #BATCH_CHAR_BUDGET}:
+     * los resultados cortos se incluyen enteros y el resto del presupuesto se
+     * divide a partes iguales entre los largos.
+     */
+    private String buildBatchResult(List<ActionRequest> actions, List<String> bodies, int skipped) {
+        List<String> sections = new ArrayList<>();
+        for (int i = 0; i < bodies.size(); i++) {
+            String body = bodies.get(i);
+            sections.add(body.startsWith("[ACTION_RESULT:")
+                    ? body
+                    : "[ACTION_RESULT:" + actions.get(i).name() + "]\n" + body.strip() + "\n[/ACTION_RESULT]");
         }
 
-        String project = stripQuotes(matcher.group(1));
-        int depth = Math.min(resolveMaxDepth(), parseOrDefault(matcher.group(2), 2));
-        int limit = Math.min(resolveMaxLimit(), parseOrDefault(matcher.group(3), 200));
+        int[] allowance = FileBundle.fairShares(sections.stream().mapToInt(String::length).toArray(),
+                BATCH_CHAR_BUDGET);
 
-        automatedSender.accept(nextStepMessage("Listado de archivos:\n" + workspaceService.listProjectTree(project, depth, limit)));
-        return true;
+        StringBuilder sb = new StringBuilder();
+        sb.append("[ACTION_RESULT:BATCH] count=").append(sections.size()).append("\n");
+        for (int i = 0; i < sections.size(); i++) {
+            if (sections.get(i).length() > allowance[i]) {
+                // El modelo no verá el contenido entero: no puede servir de base
+                resultCache.forget(actions.get(i).key());
+            }
+            sb.append(fitSection(sections.get(i), allowance[i])).append("\n");
+        }
+        if (skipped > 0) {
+            sb.append("note=Se ignoraron ").append(skipped)
+              .append(" acciones: máximo ").append(MAX_BATCH_ACTIONS).append(" por mensaje.\n");
+        }
+        sb.append("[/ACTION_RESULT:BATCH]");
+        return sb.toString();
     }
 
-    private boolean handleSearchText(String text) {
-        Matcher matcher = SEARCH_TEXT_PATTERN.matcher(text);
-        if (!matcher.find()) {
-            return false;
+    private static String fitSection(String section, int allowance) {
+        if (section.length() <= allowance) {
+            return section;
+        }
+        String closing = "[/ACTION_RESULT]";
+        String head = section.substring(0, Math.max(0, allowance - closing.length() - 32));
+        StringBuilder sb = new StringBuilder(head);
+        if (!head.endsWith("\n")) {
+            sb.append("\n");
+        }
+        sb.append("... [truncated]\n");
+        if (countFences(head) % 2 == 1) {
+            sb.append("```\n");
         }
-        String project = stripQuotes(matcher.group(1));
-        String query = stripQuotes(matcher.group(2));
-        int limit = Math.min(resolveMaxLimit(), parseOrDefault(matcher.group(3), 50));
-        automatedSender.accept(nextStepMessage("Búsqueda:\n" + workspaceService.searchText(project, query, limit)));
-        return true;
+        return sb.append(closing).toString();
     }
 
-    private boolean handleReadFileRange(String text) {
-        Matcher json = READ_FILE_RANGE_JSON.matcher(text);
-        if (json.find()) {
-            return dispatchFileRange(stripQuotes(json.group(1)), stripQuotes(json.group(2)), json.group(3), json.group(4));
+    private static int countFences(String text) {
+        int count = 0;
+        int index = text.indexOf("```");
+        while (index >= 0) {
+            count++;
+            index = text.indexOf("```", index + 3);
         }
+        return count;
+    }
 
-        Matcher matcher = READ_FILE_RANGE_PATTERN.matcher(text);
-        if (!matcher.find()) {
-            return false;
+    private String nextStepMessage(String actionResult) {
+        return actionResult +
+            "\n\nUsa este resultado. Si todavía necesitas información, responde solo con las líneas de acción necesarias (puedes pedir varias a la vez). Si ya puedes responder, contesta al usuario directamente y no expliques las acciones.";
+    }
+
+    private String readFile(ActionRequest action) {
+        String project = action.param("project");
+        String path = action.param("path");
+        long stamp = workspaceService.getModificationStamp(project, path);
+        String unchanged = unchangedSince(action, stamp);
+        if (unchanged != null) {
+            return unchanged;
         }
-        return dispatchFileRange(stripQuotes(matcher.group(1)), stripQuotes(matcher.group(2)), matcher.group(3), matcher.group(4));
+        String content = workspaceService.readFile(project, path);
+        if (content == null || content.isBlank()) {
+            resultCache.forget(action.key());
+            return buildMissingResult("READ_FILE", project, path, "Archivo no encontrado o vacío");
+        }
+        if (content.length() > ACTION_RESULT_CHAR_LIMIT) {
+            // Entero no cabe: mejor el esquema con líneas que sólo el principio
+            String outline = outlineService.outline(path, content);
+            if (outline != null) {
+                String shown = fitOutline(outline);
+                return deliver(action, stamp, shown,
+                        id -> buildOutlineResult("READ_FILE", project, path, content, shown, id));
+            }
+        }
+        return deliver(action, stamp, trimActionContent(content),
+                id -> buildFileResult("READ_FILE", project, path, null, null, content, id));
     }
 
-    private boolean dispatchFileRange(String project, String path, String startStr, String endStr) {
-        int start = parseOrDefault(startStr, 1);
-        int end = parseOrDefault(endStr, start + 200);
+    private String readFileRange(ActionRequest action) {
+        String project = action.param("project");
+        String path = action.param("path");
+        int start = action.intParam("start", 1);
+        int end = action.intParam("end", start + 200);
+        long stamp = workspaceService.getModificationStamp(project, path);
+        String unchanged = unchangedSince(action, stamp);
+        if (unchanged != null) {
+            return unchanged;
+        }
         String content = workspaceService.readFileRange(project, path, start, end);
         if (content == null || content.isBlank()) {
-            automatedSender.accept(nextStepMessage(buildMissingResult("READ_FILE_RANGE", project, path, "Rango vacío o archivo no encontrado")));
-            return true;
+            resultCache.forget(action.key());
+            return buildMissingResult("READ_FILE_RANGE", project, path, "Rango vacío o archivo no encontrado");
         }
-        automatedSender.accept(nextStepMessage(buildFileResult("READ_FILE_RANGE", project, path, start, end, content)));
-        return true;
+        return deliver(action, stamp, trimActionContent(content),
+                id -> buildFileResult("READ_FILE_RANGE", project, path, start, end, content, id));
     }
 
-    private boolean handleReadActiveFile(String text) {
-        if (!READ_ACTIVE_FILE_PATTERN.matcher(text).find()) {
-            return false;
+    private String readOutline(ActionRequest action) {
+        String project = action.param("project");
+        String path = action.param("path");
+        long stamp = workspaceService.getModificationStamp(project, path);
+        String unchanged = unchangedSince(action, stamp);
+        if (unchanged != null) {
+            return unchanged;
         }
-        String content = workspaceService.getActiveEditorContent();
+        String content = workspaceService.readFile(project, path);
         if (content == null || content.isBlank()) {
-            automatedSender.accept(nextStepMessage("[SYSTEM] No hay editor activo o está vacío"));
-        } else {
-            automatedSender.accept(nextStepMessage("Archivo activo:\n" + content));
+            resultCache.forget(action.key());
+            return buildMissingResult("READ_OUTLINE", project, path, "Archivo no encontrado o vacío");
+        }
+        String outline = outlineService.outline(path, content);
+        if (outline == null) {
+            resultCache.forget(action.key());
+            return buildMissingResult("READ_OUTLINE", project, path,
+                    "Sin estructura reconocible; usa READ_FILE o READ_FILE_RANGE");
         }
-        return true;
+        String shown = fitOutline(outline);
+        return deliver(action, stamp, shown,
+                id -> buildOutlineResult("READ_OUTLINE", project, path, content, shown, id));
     }
 
-    private boolean handleReadActiveSelection(String text) {
-        if (!READ_ACTIVE_SELECTION_PATTERN.matcher(text).find()) {
-            return false;
+    private static String fitOutline(String outline) {
+        if (outline.length() <= OUTLINE_CHAR_LIMIT) {
+            return outline;
         }
-        String sel = workspaceService.getActiveSelectionText();
-        if (sel == null || sel.isBlank()) {
-            automatedSender.accept(nextStepMessage("[SYSTEM] No hay selección activa"));
-        } else {
-            automatedSender.accept(nextStepMessage("Selección activa:\n" + sel));
+        int cut = outline.lastIndexOf('\n', OUTLINE_CHAR_LIMIT);
+        return outline.substring(0, cut + 1) + "... [outline truncated]\n";
+    }
+
+    /**
+     * Varios archivos en una acción, por lista ({@code paths=a,b}) o patrón
+     * ({@code glob=src/**}{@code /*.java}). Se leen en paralelo y comparten
+     * {@link #BATCH_CHAR_BUDGET}.
+     */
+    private String readFiles(ActionRequest action) {
+        String project = action.param("project");
+        Set<String> paths = new LinkedHashSet<>();
+        if (action.param("paths") != null) {
+            for (String path : action.param("paths").split(",")) {
+                if (!path.isBlank()) {
+                    paths.add(path.strip());
+                }
+            }
         }
-        return true;
+        if (action.param("glob") != null) {
+            paths.addAll(workspaceService.findFiles(project, action.param("glob"), MAX_READ_FILES + 1));
+        }
+        if (paths.isEmpty()) {
+            return buildErrorResult(action, action.param("paths") == null && action.param("glob") == null
+                    ? "Faltan parámetros. Obligatorios: paths o glob"
+                    : "Ningún archivo coincide");
+        }
+        List<String> selected = paths.stream().limit(MAX_READ_FILES).toList();
+
+        List<String> contents = readAll(project, selected);
+        List<FileBundle.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < selected.size(); i++) {
+            String content = contents.get(i);
+            entries.add(new FileBundle.Entry(selected.get(i),
+                    content == null || content.isEmpty() ? null : content));
+        }
+
+        StringBuilder body = new StringBuilder();
+        body.append("files=").append(selected.size());
+        if (paths.size() > selected.size()) {
+            body.append(" (more matched; max ").append(MAX_READ_FILES).append(")");
+        }
+        body.append("\n").append(FileBundle.build(entries, BATCH_CHAR_BUDGET, outlineService::outline));
+        String content = body.toString();
+        return deliver(action, ActionResultCache.NO_STAMP, content, id -> {
+            StringBuilder sb = new StringBuilder();
+            sb.append("[ACTION_RESULT:READ_FILES]\n")
+              .append("status=OK\n")
+              .append("result=#").append(id).append("\n")
+              .append("project=").append(project).append("\n")
+              .append(content)
+              .append("[/ACTION_RESULT]");
+            return sb.toString();
+        });
+    }
+
+    /**
+     * Lee {@code paths} en paralelo en {@link #FILE_READ_EXECUTOR}; en la
+     * misma posición queda el contenido o {@code null} si no se pudo leer.
+     */
+    private List<String> readAll(String project, List<String> paths) {
+        List<Future<String>> reads = new ArrayList<>();
+        for (String path : paths) {
+            reads.add(FILE_READ_EXECUTOR.submit(() -> workspaceService.readFile(project, path)));
+        }
+        List<String> contents = new ArrayList<>();
+        try {
+            for (Future<String> read : reads) {
+                try {
+                    contents.add(read.get());
+                } catch (ExecutionException e) {
+                    contents.add(null);
+                }
+            }
+        } catch (InterruptedException e) {
+            reads.forEach(read -> read.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new OperationCanceledException();
+        }
+        return contents;
     }
 
-    private boolean handleListOpenFiles(String text) {
-        if (!LIST_OPEN_FILES_PATTERN.matcher(text).find()) {
-            return false;
+    /**
+     * Expresión regular sobre los archivos del proyecto (opcionalmente
+     * filtrados por {@code glob}), con líneas de contexto y los archivos con
+     * más densidad de coincidencias primero.
+     */
+    private String grep(ActionRequest action) {
+        String project = action.param("project");
+        if (action.spilled().contains("pattern")) {
+            // Buscar sólo la primera palabra daría resultados engañosos
+            return buildErrorResult(action,
+                    "El patrón tiene espacios sin comillas y se cortaría en la primera palabra: usa pattern=\"...\"");
+        }
+        Pattern pattern;
+        try {
+            int flags = Boolean.parseBoolean(action.param("ignore_case")) ? Pattern.CASE_INSENSITIVE : 0;
+            pattern = Pattern.compile(action.param("pattern"), flags);
+        } catch (PatternSyntaxException e) {
+            return buildErrorResult(action, "Expresión regular no válida: " + e.getDescription());
         }
-        automatedSender.accept(nextStepMessage("Archivos abiertos:\n" + workspaceService.listOpenFiles()));
-        return true;
+        int context = Math.max(0, Math.min(MAX_GREP_CONTEXT, action.intParam("context", 2)));
+        int perFile = Math.max(1, Math.min(MAX_GREP_PER_FILE, action.intParam("max_per_file", 5)));
+        String glob = action.param("glob") == null ? "**" : action.param("glob");
+
+        List<String> paths = workspaceService.findTextFiles(project, glob, MAX_GREP_FILES + 1, MAX_GREP_FILE_BYTES);
+        boolean capped = paths.size() > MAX_GREP_FILES;
+        if (capped) {
+            paths = paths.subList(0, MAX_GREP_FILES);
+        }
+        List<GrepService.FileMatches> hits = new ArrayList<>();
+        for (int from = 0; from < paths.size(); from += GREP_CHUNK) {
+            List<String> chunk = paths.subList(from, Math.min(paths.size(), from + GREP_CHUNK));
+            List<String> contents = readAll(project, chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                GrepService.FileMatches hit = grepService.scan(chunk.get(i), contents.get(i), pattern, perFile);
+                if (hit != null) {
+                    hits.add(hit);
+                }
+            }
+        }
+        grepService.rank(hits);
+
+        int total = hits.stream().mapToInt(GrepService.FileMatches::total).sum();
+        StringBuilder body = new StringBuilder();
+        body.append("pattern=").append(pattern.pattern()).append("\n")
+            .append("scanned=").append(paths.size()).append(capped ? " (max reached)" : "")
+            .append(" files=").append(hits.size())
+            .append(" matches=").append(total).append("\n");
+        int shown = 0;
+        for (GrepService.FileMatches hit : hits) {
+            String block = "--- path=" + hit.path() + " matches=" + hit.total() + "\n"
+                    + grepService.format(hit, context);
+            if (body.length() + block.length() > BATCH_CHAR_BUDGET) {
+                break;
+            }
+            body.append(block);
+            shown++;
+        }
+        if (shown < hits.size()) {
+            body.append("note=").append(hits.size() - shown)
+                .append(" more files omitted; narrow the pattern or the glob\n");
+        }
+        String content = body.toString();
+        return deliver(action, ActionResultCache.NO_STAMP, content, id -> {
+            StringBuilder sb = new StringBuilder();
+            sb.append("[ACTION_RESULT:GREP]\n")
+              .append("status=OK\n")
+              .append("result=#").append(id).append("\n")
+              .append("project=").append(project).append("\n")
+              .append(content)
+              .append("[/ACTION_RESULT]");
+            return sb.toString();
+        });
     }
 
-    private boolean handleReadProjectFull(String text) {
-        Matcher matcher = READ_PROJECT_FULL_PATTERN.matcher(text);
-        if (!matcher.find()) {
-            return false;
+    /**
+     * Resultado "sin cambios" si el archivo conserva el sello que tenía al
+     * entregarlo la última vez; así ni siquiera se vuelve a leer.
+     */
+    private String unchangedSince(ActionRequest action, long stamp) {
+        ActionResultCache.Entry previous = resultCache.get(action.key());
+        if (previous == null || stamp == ActionResultCache.NO_STAMP || previous.stamp() != stamp) {
+            return null;
         }
-        String project = stripQuotes(matcher.group(1));
-        String listing = workspaceService.listAllFilesRecursive(project);
-        automatedSender.accept(nextStepMessage("Listado completo de archivos del proyecto '" + project + "':\n" + listing));
-        return true;
+        resultCache.stage(action.key(), previous);
+        return buildUnchangedResult(action, previous.id());
+    }
+
+    /**
+     * Entrega {@code content} entero, como "sin cambios" o como diff contra
+     * lo último entregado para la misma acción, lo que salga más corto.
+     */
+    private String deliver(ActionRequest action, long stamp, String content, IntFunction<String> fullResult) {
+        ActionResultCache.Entry previous = resultCache.get(action.key());
+        if (previous != null && previous.content().equals(content)) {
+            resultCache.stage(action.key(), previous.withStamp(stamp));
+            return buildUnchangedResult(action, previous.id());
+        }
+        ActionResultCache.Entry entry = resultCache.stage(action.key(), stamp, content);
+        if (previous != null) {
+            String name = action.param("path") != null ? action.param("path") : action.name().toLowerCase();
+            String diff = diffService.unifiedDiff(name, previous.content(), content, 3, MAX_DIFF_EDITS);
+            if (diff != null && diff.length() < content.length() / 2) {
+                return buildDiffResult(action, entry.id(), previous.id(), diff);
+            }
+        }
+        return fullResult.apply(entry.id());
+    }
+
+    private String readActiveFile(EditorSnapshot editors) {
+        String content = editors.activeContent();
+        if (content.isBlank()) {
+            return "[SYSTEM] No hay editor activo o está vacío";
+        }
+        return "Archivo activo:\n" + content;
+    }
+
+    private String readActiveSelection(EditorSnapshot editors) {
+        String sel = editors.selection();
+        if (sel.isBlank()) {
+            return "[SYSTEM] No hay selección activa";
+        }
+        return "Selección activa:\n" + sel;
+    }
+
+    private String listFiles(ActionRequest action) {
+        String project = action.param("project");
+        int depth = Math.min(resolveMaxDepth(), action.intParam("depth", 2));
+        int limit = Math.min(resolveMaxLimit(), action.intParam("limit", 200));
+        return deliverTree(action, workspaceService.collectPaths(project, depth, MAX_LISTED_PATHS), limit);
+    }
+
+    private String searchText(ActionRequest action) {
+        String project = action.param("project");
+        String query = action.param("query");
+        int limit = Math.min(resolveMaxLimit(), action.intParam("limit", 50));
+        return deliverListing(action, "Búsqueda:\n" + workspaceService.searchText(project, query, limit));
+    }
+
+    private String readProjectFull(ActionRequest action) {
+        String project = action.param("project");
+        return deliverTree(action,
+                workspaceService.collectPaths(project, Integer.MAX_VALUE, MAX_LISTED_PATHS), MAX_LISTED_PATHS);
+    }
+
+    /**
+     * Una página de {@code paths} en formato de árbol, desde el parámetro
+     * {@code cursor} y con como mucho {@code pageSize} entradas; si no cabe
+     * en {@link #ACTION_RESULT_CHAR_LIMIT} se reduce la página a la mitad
+     * hasta que quepa. Cuando quedan
+     * más, el resultado lleva el {@code next_cursor} para pedirlas.
+     */
+    private String deliverTree(ActionRequest action, List<String> paths, int pageSize) {
+        if (paths == null) {
+            resultCache.forget(action.key());
+            return buildErrorResult(action, "Proyecto no encontrado o cerrado");
+        }
+        int from = Math.max(0, Math.min(paths.size(), action.intParam("cursor", 0)));
+        int to = Math.min(paths.size(), from + pageSize);
+        // Se reserva sitio para las líneas de cabecera
+        int budget = ACTION_RESULT_CHAR_LIMIT - TreeEncoder.FORMAT.length() - 200;
+        String tree = treeEncoder.encode(paths.subList(from, to));
+        while (tree.length() > budget && to - from > 1) {
+            to = from + (to - from) / 2;
+            tree = treeEncoder.encode(paths.subList(from, to));
+        }
+        StringBuilder body = new StringBuilder();
+        body.append("project=").append(action.param("project")).append("\n")
+            .append("format=").append(TreeEncoder.FORMAT).append("\n")
+            .append("entries=").append(paths.isEmpty() ? 0 : from + 1).append("-").append(to)
+            .append(" of ").append(paths.size());
+        if (paths.size() >= MAX_LISTED_PATHS) {
+            body.append(" (max reached)");
+        }
+        body.append("\n");
+        if (to < paths.size()) {
+            body.append("next_cursor=").append(to).append("\n");
+        }
+        return deliverListing(action, body.append(tree).toString());
+    }
+
+    /**
+     * Listados y búsquedas: no hay un sello que consultar, así que se
+     * calculan siempre y se comparan con lo entregado.
+     */
+    private String deliverListing(ActionRequest action, String body) {
+        String content = trimActionContent(body);
+        return deliver(action, ActionResultCache.NO_STAMP, content, id -> {
+            StringBuilder sb = new StringBuilder();
+            sb.append("[ACTION_RESULT:").append(action.name()).append("]\n")
+              .append("status=OK\n")
+              .append("result=#").append(id).append("\n")
+              .append(content.strip()).append("\n")
+              .append("[/ACTION_RESULT]");
+            return sb.toString();
+        });
+    }
+
+    private static ExecutorService createExecutor(String name) {
+        int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, name + " " + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     private int resolveMaxDepth() {
@@ -239,44 +860,99 @@ public class ChatActionDispatcher {
         return value;
     }
 
-    private int parseOrDefault(String value, int defaultValue) {
-        if (value == null || value.isBlank()) {
-            return defaultValue;
-        }
-        try {
-            return Integer.parseInt(value);
-        } catch (NumberFormatException ignored) {
-            return defaultValue;
+    private String buildMissingResult(String action, String project, String path, String reason) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[ACTION_RESULT:").append(action).append("]\n")
+          .append("status=ERROR\n")
+          .append("project=").append(project).append("\n")
+          .append("path=").append(path).append("\n")
+          .append("message=").append(reason).append("\n")
+          .append("[/ACTION_RESULT]");
+        return sb.toString();
+    }
+
+    private String buildErrorResult(ActionRequest action, String reason) {
+        return buildMissingResult(action.name(), orDash(action.param("project")), orDash(action.param("path")), reason);
+    }
+
+    private static String orDash(String value) {
+        return value == null ? "-" : value;
+    }
+
+    private String buildUnchangedResult(ActionRequest action, int sameAs) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[ACTION_RESULT:").append(action.name()).append("]\n")
+          .append("status=UNCHANGED\n")
+          .append("same_as=#").append(sameAs).append("\n");
+        appendTarget(sb, action);
+        sb.append("note=Content unchanged since result #").append(sameAs).append("; use that result.\n")
+          .append("[/ACTION_RESULT]");
+        return sb.toString();
+    }
+
+    private String buildDiffResult(ActionRequest action, int id, int base, String diff) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[ACTION_RESULT:").append(action.name()).append("]\n")
+          .append("status=CHANGED\n")
+          .append("result=#").append(id).append("\n")
+          .append("base=#").append(base).append("\n");
+        appendTarget(sb, action);
+        sb.append("content:\n")
+          .append("```diff\n")
+          .append(diff);
+        if (!diff.endsWith("\n")) {
+            sb.append("\n");
         }
+        sb.append("```\n")
+          .append("note=Unified diff against result #").append(base).append("; apply it to get the current content.\n")
+          .append("[/ACTION_RESULT]");
+        return sb.toString();
     }
 
-    private String stripQuotes(String value) {
-        if (value == null) return null;
-        String trimmed = value.trim();
-        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
-            return trimmed.substring(1, trimmed.length() - 1);
+    private static void appendTarget(StringBuilder sb, ActionRequest action) {
+        if (action.param("project") != null) {
+            sb.append("project=").append(action.param("project")).append("\n");
+        }
+        if (action.param("path") != null) {
+            sb.append("path=").append(action.param("path")).append("\n");
+        }
+        if (action.param("start") != null) {
+            sb.append("range=").append(action.param("start")).append("-").append(orDash(action.param("end"))).append("\n");
         }
-        return trimmed;
     }
 
-    private String buildMissingResult(String action, String project, String path, String reason) {
+    private String buildOutlineResult(String action, String project, String path, String content, String outline, int id) {
         StringBuilder sb = new StringBuilder();
         sb.append("[ACTION_RESULT:").append(action).append("]\n")
-          .append("status=ERROR\n")
+          .append("status=OK\n")
+          .append("result=#").append(id).append("\n")
           .append("project=").append(project).append("\n")
           .append("path=").append(path).append("\n")
-          .append("message=").append(reason).append("\n")
+          .append("mode=outline\n")
+          .append("lines=").append(content.lines().count()).append("\n")
+          .append("content:\n")
+          .append("```text\n")
+          .append(outline)
+          .append("```\n");
+        if ("READ_FILE".equals(action)) {
+            sb.append("note=The file exceeds ").append(ACTION_RESULT_CHAR_LIMIT)
+              .append(" characters, so only its outline is shown.");
+        } else {
+            sb.append("note=Outline only.");
+        }
+        sb.append(" Lines are given as L<start>-<end>; use READ_FILE_RANGE to read the members you need.\n")
           .append("[/ACTION_RESULT]");
         return sb.toString();
     }
 
-    private String buildFileResult(String action, String project, String path, Integer start, Integer end, String content) {
+    private String buildFileResult(String action, String project, String path, Integer start, Integer end, String content, int id) {
         String language = inferLanguage(path);
                 boolean truncated = content != null && content.length() > ACTION_RESULT_CHAR_LIMIT;
                 String normalized = trimActionContent(content);
         StringBuilder sb = new StringBuilder();
         sb.append("[ACTION_RESULT:").append(action).append("]\n")
           .append("status=OK\n")
+          .append("result=#").append(id).append("\n")
           .append("project=").append(project).append("\n")
           .append("path=").append(path).append("\n");
         if (start != null && end != null) {
@@ -309,7 +985,7 @@ public class ChatActionDispatcher {
         return content.substring(0, ACTION_RESULT_CHAR_LIMIT) + "\n... [truncated]";
     }
 
-    private String inferLanguage(String path) {
+    static String inferLanguage(String path) {
         if (path == null || path.isBlank()) {
             return "text";
         }
@@ -319,9 +995,4 @@ public class ChatActionDispatcher {
         }
         return path.substring(idx + 1).toLowerCase();
     }
-
-    @FunctionalInterface
-    private interface ActionHandler {
-        boolean tryHandle(String text);
-    }
 }
\ No newline at end of file
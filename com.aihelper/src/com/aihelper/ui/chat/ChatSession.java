@@ -2,16 +2,19 @@ package com.aihelper.ui.chat;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import com.aihelper.ai.AiChatService;
+import com.aihelper.ai.RequestPriority;
 import com.aihelper.model.ChatMessage;
 
 public class ChatSession {
 
     private static final String ACTION_RESULT_PREFIX = "[ACTION_RESULT:";
     private static final String ACTION_FOLLOW_UP_PROMPT =
-            "Use the latest ACTION_RESULT from the conversation history. If more data is needed, output exactly one action line. Otherwise answer the user directly.";
+            "Use the latest ACTION_RESULT from the conversation history. If more data is needed, output the action lines you need (several at once if they are independent). Otherwise answer the user directly.";
 
     private final ChatProfile profile;
     private final ChatController controller;
@@ -22,6 +25,8 @@ public class ChatSession {
     private AiChatService aiService;
     private String projectKey;
     private Runnable currentCancel;
+    private volatile Consumer<String> earlyFinish;
+    private RequestPriority priority = RequestPriority.INTERACTIVE;
 
     public ChatSession(ChatProfile profile, ChatController controller, ChatContextBuilder contextBuilder) {
         this.profile = profile;
@@ -37,6 +42,10 @@ public class ChatSession {
         this.aiService = aiService;
     }
 
+    public void setPriority(RequestPriority priority) {
+        this.priority = priority;
+    }
+
     public void setProjectKey(String projectKey) {
         this.projectKey = projectKey;
     }
@@ -104,36 +113,74 @@ public class ChatSession {
 
         String context = contextBuilder.buildContext(history);
 
-        currentCancel = aiService.sendMessageStreaming(
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Runnable> upstream = new AtomicReference<>();
+        Consumer<String> complete = response -> {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            if (!response.isEmpty()) {
+                ChatMessage assistant = new ChatMessage("assistant", response);
+                history.add(assistant);
+                if (projectKey != null) {
+                    controller.append(assistant, projectKey);
+                }
+            }
+            onComplete.accept(response);
+            currentCancel = null;
+            earlyFinish = null;
+        };
+        earlyFinish = response -> {
+            if (done.get()) {
+                return;
+            }
+            Runnable cancel = upstream.get();
+            if (cancel != null) {
+                cancel.run();
+            }
+            complete.accept(response);
+        };
+
+        aiService.setPriority(priority);
+        upstream.set(aiService.sendMessageStreaming(
             effectivePrompt,
             context,
             chunk -> {
-                if (chunk != null) {
+                if (chunk != null && !done.get()) {
                     responseBuffer.append(chunk);
                     onChunk.accept(chunk);
                 }
             },
             err -> {
-                onError.accept(err);
-                currentCancel = null;
-            },
-            () -> {
-                String response = responseBuffer.toString();
-                if (!response.isEmpty()) {
-                    ChatMessage assistant = new ChatMessage("assistant", response);
-                    history.add(assistant);
-                    if (projectKey != null) {
-                        controller.append(assistant, projectKey);
-                    }
+                if (!done.get()) {
+                    onError.accept(err);
+                    currentCancel = null;
                 }
-                onComplete.accept(response);
-                currentCancel = null;
-            }
-        );
+            },
+            () -> complete.accept(responseBuffer.toString())
+        ));
+        if (done.get()) {
+            // Terminado antes de tener el handle (p. ej. desde el primer fragmento)
+            upstream.get().run();
+            return () -> {};
+        }
 
+        currentCancel = upstream.get();
         return currentCancel;
     }
 
+    /**
+     * Da por terminada la respuesta en curso con {@code response} (un prefijo
+     * de lo recibido) y corta la generación: el turno se completa como si el
+     * modelo hubiera acabado ahí. Sin efecto si ya terminó.
+     */
+    public void finishEarly(String response) {
+        Consumer<String> finish = earlyFinish;
+        if (finish != null) {
+            finish.accept(response == null ? "" : response);
+        }
+    }
+
     public void cancel() {
         if (currentCancel != null) {
             currentCancel.run();
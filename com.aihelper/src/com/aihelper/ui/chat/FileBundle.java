@@ -0,0 +1,143 @@
+package com.aihelper.ui.chat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BinaryOperator;
+
+/**
+ * Junta varios archivos en un único resultado repartiendo un presupuesto
+ * de caracteres: los archivos pequeños van enteros y el resto se divide a
+ * partes iguales entre los grandes. De los que no caben se muestra el
+ * esquema (tipos y firmas con líneas) si lo hay; si no, el principio.
+ */
+final class FileBundle {
+
+    /** Archivo leído; {@code content} es {@code null} si no se pudo leer. */
+    record Entry(String path, String content) {}
+
+    private FileBundle() {}
+
+    /**
+     * Reparte {@code budget} entre piezas de tamaño {@code sizes}: las que
+     * caben en su parte equitativa se quedan con lo que necesitan y lo que
+     * sobra se reparte entre las demás.
+     */
+    static int[] fairShares(int[] sizes, int budget) {
+        int[] allowance = new int[sizes.length];
+        Integer[] order = new Integer[sizes.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> sizes[i]));
+        int remaining = budget;
+        for (int k = 0; k < order.length; k++) {
+            int share = remaining / (order.length - k);
+            int index = order[k];
+            allowance[index] = Math.min(sizes[index], share);
+            remaining -= allowance[index];
+        }
+        return allowance;
+    }
+
+    /**
+     * Cuerpo del resultado: una cabecera {@code --- path=...} y un bloque de
+     * código por archivo.
+     */
+    static String build(List<Entry> entries, int budget, BinaryOperator<String> outliner) {
+        int count = entries.size();
+        int[] sizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            String content = entries.get(i).content();
+            sizes[i] = content == null ? 0 : content.length();
+        }
+        int[] allowance = fairShares(sizes, budget);
+
+        // Lo que no cabe pasa a esquema o a las primeras líneas
+        String[] shown = new String[count];
+        boolean[] outlined = new boolean[count];
+        int used = 0;
+        for (int i = 0; i < count; i++) {
+            String content = entries.get(i).content();
+            if (content == null) {
+                continue;
+            }
+            shown[i] = content;
+            if (content.length() > allowance[i]) {
+                String outline = outliner.apply(entries.get(i).path(), content);
+                outlined[i] = outline != null;
+                shown[i] = headByLines(outlined[i] ? outline : content, allowance[i]);
+            }
+            used += shown[i].length();
+        }
+        // Los esquemas suelen dejar presupuesto libre: si con él cabe un
+        // archivo entero (los más pequeños primero), va entero
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> sizes[i]));
+        for (int i : order) {
+            if (shown[i] != null && shown[i].length() < sizes[i]
+                    && used - shown[i].length() + sizes[i] <= budget) {
+                used += sizes[i] - shown[i].length();
+                shown[i] = entries.get(i).content();
+                outlined[i] = false;
+            }
+        }
+
+        List<String> partial = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            Entry entry = entries.get(i);
+            sb.append("--- path=").append(entry.path());
+            if (shown[i] == null) {
+                sb.append(" status=NOT_FOUND\n");
+                continue;
+            }
+            sb.append(" lines=").append(countLines(entry.content()));
+            String language = ChatActionDispatcher.inferLanguage(entry.path());
+            if (outlined[i]) {
+                sb.append(" mode=outline");
+                language = "text";
+                partial.add(entry.path());
+            } else if (shown[i].length() < sizes[i]) {
+                sb.append(" shown=1-").append(countLines(shown[i]));
+                partial.add(entry.path());
+            }
+            sb.append("\n```").append(language).append("\n").append(shown[i]);
+            if (!shown[i].endsWith("\n")) {
+                sb.append("\n");
+            }
+            sb.append("```\n");
+        }
+        if (!partial.isEmpty()) {
+            sb.append("note=Too large to show whole (outline or first lines only): ")
+              .append(String.join(", ", partial))
+              .append(". Use READ_FILE_RANGE with the line numbers for the rest.\n");
+        }
+        return sb.toString();
+    }
+
+    private static String headByLines(String content, int limit) {
+        if (limit <= 0) {
+            return "";
+        }
+        int cut = content.lastIndexOf('\n', Math.min(limit, content.length()) - 1);
+        return cut < 0 ? "" : content.substring(0, cut + 1);
+    }
+
+    private static int countLines(String text) {
+        if (text.isEmpty()) {
+            return 0;
+        }
+        int lines = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return text.endsWith("\n") ? lines : lines + 1;
+    }
+}
@@ -16,6 +16,7 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 
+import com.aihelper.workspace.ResourceFilter;
 import com.aihelper.workspace.WorkspaceService;
 
 public class LocalWorkspaceRouter {
@@ -203,7 +204,7 @@ public class LocalWorkspaceRouter {
         Set<String> ranked = new LinkedHashSet<>();
         List<String> allFiles = new ArrayList<>();
         try {
-            collectProjectFiles(project, allFiles);
+            collectProjectFiles(project, ResourceFilter.forProject(project), allFiles);
         } catch (CoreException e) {
             return List.of();
         }
@@ -228,12 +229,15 @@ public class LocalWorkspaceRouter {
         return new ArrayList<>(ranked);
     }
 
-    private void collectProjectFiles(IContainer container, List<String> files) throws CoreException {
+    private void collectProjectFiles(IContainer container, ResourceFilter filter, List<String> files) throws CoreException {
         for (IResource resource : container.members()) {
+            if (filter.isIgnored(resource)) {
+                continue;
+            }
             if (resource instanceof IFile) {
                 files.add(resource.getProjectRelativePath().toString().replace('\\', '/'));
             } else if (resource instanceof IContainer) {
-                collectProjectFiles((IContainer) resource, files);
+                collectProjectFiles((IContainer) resource, filter, files);
             }
         }
     }
@@ -1,5 +1,10 @@
 package com.aihelper.workspace;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 public class DiffService {
 
     public String diff(String original, String modified) {
@@ -24,6 +29,165 @@ public class DiffService {
     return sb.toString();
     }
 
+  /**
+   * Diff unificado (algoritmo de Myers) de {@code original} a
+   * {@code modified} con {@code context} líneas de contexto por bloque.
+   * Devuelve {@code null} si hacen falta más de {@code maxEdits} líneas
+   * añadidas o borradas: a partir de ahí el diff no sale a cuenta.
+   */
+  public String unifiedDiff(String name, String original, String modified, int context, int maxEdits) {
+    String[] a = lines(original);
+    String[] b = lines(modified);
+    List<Edit> script = editScript(a, b, maxEdits);
+    if (script == null) {
+      return null;
+    }
+    StringBuilder sb = new StringBuilder();
+    sb.append("--- a/").append(name).append('\n');
+    sb.append("+++ b/").append(name).append('\n');
+    int i = 0;
+    while (i < script.size()) {
+      if (script.get(i).op == ' ') {
+        i++;
+        continue;
+      }
+      // Bloque: cambios separados por menos de 2*context líneas iguales
+      int first = Math.max(0, i - context);
+      int last = i;
+      int j = i;
+      while (j < script.size()) {
+        if (script.get(j).op != ' ') {
+          last = j;
+        } else if (j - last > 2 * context) {
+          break;
+        }
+        j++;
+      }
+      int end = Math.min(script.size(), last + context + 1);
+      appendHunk(sb, script.subList(first, end));
+      i = end;
+    }
+    return sb.toString();
+  }
+
+  private record Edit(char op, int aLine, int bLine, String text) {}
+
+  private static void appendHunk(StringBuilder sb, List<Edit> hunk) {
+    int aStart = -1, bStart = -1, aCount = 0, bCount = 0;
+    for (Edit edit : hunk) {
+      if (edit.op != '+') {
+        if (aStart < 0) aStart = edit.aLine;
+        aCount++;
+      }
+      if (edit.op != '-') {
+        if (bStart < 0) bStart = edit.bLine;
+        bCount++;
+      }
+    }
+    // Sin líneas en un lado, el formato usa la línea anterior
+    if (aStart < 0) aStart = hunk.get(0).aLine - 1;
+    if (bStart < 0) bStart = hunk.get(0).bLine - 1;
+    sb.append("@@ -").append(aStart).append(',').append(aCount)
+      .append(" +").append(bStart).append(',').append(bCount).append(" @@\n");
+    for (Edit edit : hunk) {
+      sb.append(edit.op).append(edit.text).append('\n');
+    }
+  }
+
+  /**
+   * Script de edición mínimo; los números de línea empiezan en 1 y, en una
+   * inserción, {@code aLine} es la línea de {@code a} que la sigue.
+   */
+  private static List<Edit> editScript(String[] a, String[] b, int maxEdits) {
+    int prefix = 0;
+    while (prefix < a.length && prefix < b.length && a[prefix].equals(b[prefix])) {
+      prefix++;
+    }
+    int suffix = 0;
+    while (suffix < a.length - prefix && suffix < b.length - prefix
+        && a[a.length - 1 - suffix].equals(b[b.length - 1 - suffix])) {
+      suffix++;
+    }
+    int n = a.length - prefix - suffix;
+    int m = b.length - prefix - suffix;
+    int max = n + m;
+    if (max > maxEdits && Math.abs(n - m) > maxEdits) {
+      return null;
+    }
+    max = Math.min(max, maxEdits);
+
+    // Myers: v[k] = x más lejano en la diagonal k; se guarda una copia por paso
+    int offset = max + 1;
+    int[] v = new int[2 * max + 3];
+    List<int[]> trace = new ArrayList<>();
+    int found = -1;
+    for (int d = 0; d <= max && found < 0; d++) {
+      trace.add(Arrays.copyOfRange(v, offset - d - 1, offset + d + 2));
+      for (int k = -d; k <= d; k += 2) {
+        int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])
+            ? v[offset + k + 1]
+            : v[offset + k - 1] + 1;
+        int y = x - k;
+        while (x < n && y < m && a[prefix + x].equals(b[prefix + y])) {
+          x++;
+          y++;
+        }
+        v[offset + k] = x;
+        if (x >= n && y >= m) {
+          found = d;
+          break;
+        }
+      }
+    }
+    if (found < 0) {
+      return null;
+    }
+
+    // Se recorre de atrás hacia delante y se invierte al final
+    List<Edit> reversed = new ArrayList<>();
+    for (int s = 1; s <= suffix; s++) {
+      reversed.add(new Edit(' ', a.length - s + 1, b.length - s + 1, a[a.length - s]));
+    }
+    int x = n;
+    int y = m;
+    for (int d = found; d >= 0; d--) {
+      int[] saved = trace.get(d);
+      int base = d + 1; // saved[base + k] == v[k] antes del paso d
+      int k = x - y;
+      int prevK = k == -d || (k != d && saved[base + k - 1] < saved[base + k + 1]) ? k + 1 : k - 1;
+      int prevX = d == 0 ? 0 : saved[base + prevK];
+      int prevY = d == 0 ? 0 : prevX - prevK;
+      while (x > prevX && y > prevY) {
+        x--;
+        y--;
+        reversed.add(new Edit(' ', prefix + x + 1, prefix + y + 1, a[prefix + x]));
+      }
+      if (d > 0) {
+        if (x == prevX) {
+          y--;
+          reversed.add(new Edit('+', prefix + x + 1, prefix + y + 1, b[prefix + y]));
+        } else {
+          x--;
+          reversed.add(new Edit('-', prefix + x + 1, prefix + y + 1, a[prefix + x]));
+        }
+      }
+    }
+    for (int p = prefix - 1; p >= 0; p--) {
+      reversed.add(new Edit(' ', p + 1, p + 1, a[p]));
+    }
+    Collections.reverse(reversed);
+    return reversed;
+  }
+
+  private static String[] lines(String text) {
+    if (text == null || text.isEmpty()) return new String[0];
+    String normalized = text.replace("\r\n", "\n").replace("\r", "\n");
+    if (normalized.endsWith("\n")) {
+      normalized = normalized.substring(0, normalized.length() - 1);
+    }
+    return normalized.split("\n", -1);
+  }
+
   private String[] safeLines(String text) {
     if (text == null) return new String[0];
     return text.replace("\r\n", "\n").replace("\r", "\n").split("\n", -1);
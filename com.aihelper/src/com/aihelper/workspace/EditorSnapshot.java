@@ -0,0 +1,18 @@
+package com.aihelper.workspace;
+
+import java.util.List;
+
+/**
+ * Copia del estado de los editores tomada en el hilo de UI, para que las
+ * acciones que lo consultan puedan ejecutarse en segundo plano.
+ */
+public record EditorSnapshot(String activeContent, String selection, List<String> openFiles) {
+
+    public static final EditorSnapshot EMPTY = new EditorSnapshot("", "", List.of());
+
+    public EditorSnapshot {
+        activeContent = activeContent == null ? "" : activeContent;
+        selection = selection == null ? "" : selection;
+        openFiles = openFiles == null ? List.of() : List.copyOf(openFiles);
+    }
+}
@@ -0,0 +1,96 @@
+package com.aihelper.workspace;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Búsqueda por expresión regular línea a línea, con líneas de contexto al
+ * estilo de {@code grep -C} y archivos ordenados por densidad de
+ * coincidencias, para que una sola acción traiga lo necesario sin pedir
+ * después cada rango.
+ */
+public class GrepService {
+
+    /** Líneas más largas que esto no se evalúan (minificados, datos). */
+    private static final int MAX_LINE_LENGTH = 4000;
+
+    /** Coincidencias de un archivo. */
+    public record FileMatches(String path, String[] lines, List<Integer> matchLines, int total) {
+
+        /**
+         * Coincidencias por línea, suavizado para que un archivo de tres
+         * líneas con una coincidencia no gane a uno con cincuenta.
+         */
+        double density() {
+            return total / (double) (lines.length + 50);
+        }
+    }
+
+    /**
+     * Busca {@code pattern} en {@code content}; como mucho guarda
+     * {@code maxPerFile} líneas, pero cuenta todas. {@code null} si no hay
+     * coincidencias o el contenido parece binario.
+     */
+    public FileMatches scan(String path, String content, Pattern pattern, int maxPerFile) {
+        if (content == null || content.isEmpty() || content.indexOf('\0') >= 0) {
+            return null;
+        }
+        String[] lines = content.split("\r?\n");
+        List<Integer> matchLines = new ArrayList<>();
+        int total = 0;
+        Matcher matcher = pattern.matcher("");
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].length() > MAX_LINE_LENGTH) {
+                continue;
+            }
+            if (matcher.reset(lines[i]).find()) {
+                total++;
+                if (matchLines.size() < maxPerFile) {
+                    matchLines.add(i);
+                }
+            }
+        }
+        return total == 0 ? null : new FileMatches(path, lines, matchLines, total);
+    }
+
+    /**
+     * Orden de presentación: más densidad primero, luego más coincidencias
+     * y por último la ruta.
+     */
+    public void rank(List<FileMatches> files) {
+        files.sort(Comparator.comparingDouble(FileMatches::density).reversed()
+                .thenComparing(Comparator.comparingInt(FileMatches::total).reversed())
+                .thenComparing(FileMatches::path));
+    }
+
+    /**
+     * Texto de las coincidencias de un archivo: {@code n:} en las líneas que
+     * coinciden, {@code n-} en las de contexto y {@code --} entre grupos.
+     */
+    public String format(FileMatches file, int context) {
+        StringBuilder sb = new StringBuilder();
+        int printedUpTo = -1;
+        List<Integer> matches = file.matchLines();
+        for (int m = 0; m < matches.size(); m++) {
+            int line = matches.get(m);
+            int from = Math.max(0, line - context);
+            int to = Math.min(file.lines().length - 1, line + context);
+            if (printedUpTo >= 0 && from > printedUpTo + 1) {
+                sb.append("--\n");
+            }
+            for (int i = Math.max(from, printedUpTo + 1); i <= to; i++) {
+                boolean isMatch = matches.contains(i);
+                sb.append(i + 1).append(isMatch ? ": " : "- ").append(file.lines()[i]).append('\n');
+            }
+            printedUpTo = Math.max(printedUpTo, to);
+        }
+        int hidden = file.total() - matches.size();
+        if (hidden > 0) {
+            sb.append("(+").append(hidden).append(" more matches in this file)\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,350 @@
+package com.aihelper.workspace;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Esquema de un archivo de código: tipos, campos y firmas con sus números
+ * de línea y la primera frase del Javadoc, sin los cuerpos. Sirve para que
+ * el modelo vea la forma de un archivo grande y pida después el rango que
+ * necesita.
+ *
+ * Para Java se recorre el texto una vez respetando comentarios, cadenas y
+ * bloques de texto; para otros lenguajes con llaves se usa una
+ * aproximación por líneas.
+ */
+public class OutlineService {
+
+    private static final int MAX_SIGNATURE = 160;
+    private static final int MAX_DOC = 100;
+    private static final int MAX_LITERAL = 32;
+
+    private enum Frame { TYPE, BODY }
+
+    private record Item(int depth, int start, int end, String text, String doc) {}
+
+    /**
+     * Esquema de {@code content} o {@code null} si el archivo no tiene una
+     * estructura de llaves reconocible.
+     */
+    public String outline(String path, String content) {
+        if (content == null || content.isBlank()) {
+            return null;
+        }
+        String lower = path == null ? "" : path.toLowerCase(Locale.ROOT);
+        List<Item> items = lower.endsWith(".java") ? javaOutline(content) : braceOutline(content);
+        if (items.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Item item : items) {
+            sb.append("  ".repeat(item.depth()));
+            sb.append('L').append(item.start());
+            if (item.end() > item.start()) {
+                sb.append('-').append(item.end());
+            }
+            sb.append(' ').append(item.text());
+            if (item.doc() != null) {
+                sb.append("  // ").append(item.doc());
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /* =======================
+       JAVA
+       ======================= */
+
+    private static List<Item> javaOutline(String text) {
+        List<Item> items = new ArrayList<>();
+        Deque<Frame> frames = new ArrayDeque<>();
+        // Índice en items de la declaración que abrió cada llave (-1 si no se anota)
+        Deque<Integer> owners = new ArrayDeque<>();
+        StringBuilder pending = new StringBuilder();
+        int pendingLine = 0;
+        String doc = null;
+        int line = 1;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            boolean declarations = frames.isEmpty() || frames.peek() == Frame.TYPE;
+            if (c == '\n') {
+                line++;
+                if (declarations && pending.length() > 0) {
+                    pending.append(' ');
+                }
+                i++;
+                continue;
+            }
+            if (c == '/' && i + 1 < length && text.charAt(i + 1) == '/') {
+                while (i < length && text.charAt(i) != '\n') {
+                    i++;
+                }
+                continue;
+            }
+            if (c == '/' && i + 1 < length && text.charAt(i + 1) == '*') {
+                int close = text.indexOf("*/", i + 2);
+                int end = close < 0 ? length : close + 2;
+                if (declarations && text.startsWith("/**", i) && close > i + 2) {
+                    doc = docSummary(text.substring(i + 3, close));
+                }
+                line += count(text, i, end, '\n');
+                i = end;
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                int end = skipLiteral(text, i);
+                if (declarations) {
+                    if (pending.length() == 0) {
+                        pendingLine = line;
+                    }
+                    // Los literales cortos (constantes, claves) dicen mucho; los largos se abrevian
+                    pending.append(end - i <= MAX_LITERAL ? text.substring(i, end) : c + "…" + c);
+                }
+                line += count(text, i, end, '\n');
+                i = end;
+                continue;
+            }
+            if (!declarations) {
+                if (c == '{') {
+                    frames.push(Frame.BODY);
+                    owners.push(-1);
+                } else if (c == '}') {
+                    close(frames, owners, items, line);
+                }
+                i++;
+                continue;
+            }
+
+            if (c == '{') {
+                String header = clean(pending);
+                if (header.contains("=") && !isTypeHeader(header)) {
+                    // Inicializador de un campo: se salta y el campo acaba en ';'
+                    int end = skipBlock(text, i);
+                    pending.append("{…}");
+                    line += count(text, i, end, '\n');
+                    i = end;
+                    continue;
+                }
+                int depth = frames.size();
+                if (!header.isEmpty()) {
+                    items.add(new Item(depth, pendingLine, pendingLine, signature(header), doc));
+                    owners.push(items.size() - 1);
+                } else {
+                    owners.push(-1);
+                }
+                frames.push(isTypeHeader(header) ? Frame.TYPE : Frame.BODY);
+                pending.setLength(0);
+                doc = null;
+            } else if (c == '}') {
+                String rest = clean(pending);
+                if (!rest.isEmpty()) {
+                    // Constantes de un enum sin ';' final
+                    items.add(new Item(frames.size(), pendingLine, line, signature(rest), doc));
+                }
+                pending.setLength(0);
+                doc = null;
+                close(frames, owners, items, line);
+            } else if (c == ';') {
+                String statement = clean(pending);
+                if (!statement.isEmpty() && !statement.startsWith("import ")) {
+                    items.add(new Item(frames.size(), pendingLine, line, signature(statement), doc));
+                }
+                pending.setLength(0);
+                doc = null;
+            } else if (!Character.isWhitespace(c) || pending.length() > 0) {
+                if (pending.length() == 0) {
+                    pendingLine = line;
+                }
+                pending.append(c);
+            }
+            i++;
+        }
+        return items;
+    }
+
+    /**
+     * Salta el bloque que abre la llave en {@code open} (inicializador de
+     * campo), respetando literales y comentarios; devuelve la posición tras
+     * la llave de cierre.
+     */
+    private static int skipBlock(String text, int open) {
+        int depth = 0;
+        int i = open;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\'') {
+                i = skipLiteral(text, i);
+                continue;
+            }
+            if (c == '/' && i + 1 < text.length() && text.charAt(i + 1) == '/') {
+                int newline = text.indexOf('\n', i);
+                i = newline < 0 ? text.length() : newline;
+                continue;
+            }
+            if (c == '/' && i + 1 < text.length() && text.charAt(i + 1) == '*') {
+                int close = text.indexOf("*/", i + 2);
+                i = close < 0 ? text.length() : close + 2;
+                continue;
+            }
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static void close(Deque<Frame> frames, Deque<Integer> owners, List<Item> items, int line) {
+        if (frames.isEmpty()) {
+            return;
+        }
+        frames.pop();
+        int owner = owners.pop();
+        if (owner >= 0) {
+            Item item = items.get(owner);
+            items.set(owner, new Item(item.depth(), item.start(), line, item.text(), item.doc()));
+        }
+    }
+
+    private static boolean isTypeHeader(String header) {
+        String h = " " + header + " ";
+        return h.contains(" class ") || h.contains(" interface ") || h.contains(" enum ")
+                || h.contains(" record ") || h.contains(" @interface ");
+    }
+
+    /** Literal de cadena, carácter o bloque de texto; posición tras el cierre. */
+    private static int skipLiteral(String text, int start) {
+        char quote = text.charAt(start);
+        if (quote == '"' && text.startsWith("\"\"\"", start)) {
+            int close = text.indexOf("\"\"\"", start + 3);
+            return close < 0 ? text.length() : close + 3;
+        }
+        int i = start + 1;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == quote || c == '\n') {
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /** Quita anotaciones iniciales y espacios repetidos. */
+    private static String clean(StringBuilder pending) {
+        String text = pending.toString().replaceAll("\\s+", " ").strip();
+        while (text.startsWith("@") && !text.startsWith("@interface")) {
+            int i = 1;
+            while (i < text.length() && (Character.isJavaIdentifierPart(text.charAt(i)) || text.charAt(i) == '.')) {
+                i++;
+            }
+            if (i < text.length() && text.charAt(i) == '(') {
+                int depth = 0;
+                for (; i < text.length(); i++) {
+                    if (text.charAt(i) == '(') depth++;
+                    else if (text.charAt(i) == ')' && --depth == 0) {
+                        i++;
+                        break;
+                    }
+                }
+            }
+            text = text.substring(Math.min(i, text.length())).strip();
+        }
+        return text;
+    }
+
+    private static String signature(String text) {
+        return text.length() <= MAX_SIGNATURE ? text : text.substring(0, MAX_SIGNATURE) + "…";
+    }
+
+    /** Primera frase del Javadoc, sin asteriscos ni etiquetas. */
+    private static String docSummary(String body) {
+        StringBuilder sb = new StringBuilder();
+        for (String raw : body.split("\n")) {
+            String l = raw.strip();
+            if (l.startsWith("*")) {
+                l = l.substring(1).strip();
+            }
+            if (l.startsWith("@")) {
+                break;
+            }
+            if (l.isEmpty()) {
+                if (sb.length() > 0) break;
+                continue;
+            }
+            sb.append(sb.length() > 0 ? " " : "").append(l);
+        }
+        String text = sb.toString().replaceAll("<[^>]+>", "").replaceAll("\\{@\\w+\\s*([^}]*)}", "$1").strip();
+        int period = text.indexOf(". ");
+        if (period > 0) {
+            text = text.substring(0, period + 1);
+        }
+        if (text.isEmpty()) {
+            return null;
+        }
+        return text.length() <= MAX_DOC ? text : text.substring(0, MAX_DOC) + "…";
+    }
+
+    private static int count(String text, int from, int to, char target) {
+        int n = 0;
+        for (int i = from; i < to && i < text.length(); i++) {
+            if (text.charAt(i) == target) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /* =======================
+       GENÉRICO (LLAVES)
+       ======================= */
+
+    /**
+     * Líneas que abren un bloque en los dos primeros niveles: cabeceras de
+     * clases, funciones y similares en lenguajes con llaves.
+     */
+    private static List<Item> braceOutline(String text) {
+        List<Item> items = new ArrayList<>();
+        Deque<Integer> open = new ArrayDeque<>();
+        String[] lines = text.split("\n", -1);
+        for (int n = 0; n < lines.length; n++) {
+            String line = lines[n];
+            boolean annotated = false;
+            for (int k = 0; k < line.length(); k++) {
+                char c = line.charAt(k);
+                if (c == '{') {
+                    String header = line.substring(0, k).strip();
+                    boolean interesting = !annotated && open.size() <= 1 && !header.isEmpty()
+                            && !header.startsWith("}") && !header.endsWith("=")
+                            && !header.endsWith("(") && !header.endsWith(",");
+                    if (interesting) {
+                        items.add(new Item(open.size(), n + 1, n + 1, signature(header), null));
+                        open.push(items.size() - 1);
+                        annotated = true;
+                    } else {
+                        open.push(-1);
+                    }
+                } else if (c == '}' && !open.isEmpty()) {
+                    int index = open.pop();
+                    if (index >= 0) {
+                        Item item = items.get(index);
+                        items.set(index, new Item(item.depth(), item.start(), n + 1, item.text(), item.doc()));
+                    }
+                }
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,475 @@
+package com.aihelper.workspace;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * Resumen de los proyectos del workspace para {@code READ_PROJECT}:
+ * naturalezas, tipo de build, carpetas de fuentes, archivos por lenguaje y
+ * puntos de entrada probables.
+ *
+ * El resumen se mantiene en memoria: un Job de sistema recalcula sólo los
+ * proyectos que cambian (según los deltas de recursos, agrupados unos
+ * instantes) y la acción lo sirve al momento; el Activator lo arranca al
+ * cargar el plugin. Los recorridos pasan por
+ * {@link ResourceFilter} y no leen el contenido de los archivos, salvo los
+ * pocos descriptores del proyecto ({@code .classpath}, manifiesto), así que
+ * los cambios de contenido de los demás no provocan recálculo.
+ */
+public final class ProjectSnapshotService {
+
+    private static final ProjectSnapshotService DEFAULT = new ProjectSnapshotService();
+
+    /** Espera tras un cambio para agrupar los deltas de un build o un pull. */
+    private static final long REFRESH_DELAY_MILLIS = 500;
+
+    /** Lo que espera {@link #describe} a un proyecto aún sin resumen. */
+    private static final long FIRST_SUMMARY_WAIT_MILLIS = 10_000;
+
+    private static final int MAX_LANGUAGES = 6;
+    private static final int MAX_ENTRY_POINTS = 5;
+    private static final int MAX_SOURCE_FOLDERS = 6;
+
+    private static final Pattern CLASSPATH_SOURCE = Pattern.compile(
+            "<classpathentry[^>]*kind=\"src\"[^>]*path=\"([^\"/][^\"]*)\"|<classpathentry[^>]*path=\"([^\"/][^\"]*)\"[^>]*kind=\"src\"");
+    private static final Pattern ENTRY_POINT_NAME = Pattern.compile(
+            "(?:Main|App|Application|\\w+Application)\\.(?:java|kt)|main\\.(?:py|go|rs|c|cpp)|__main__\\.py|index\\.(?:js|ts)");
+
+    private static final Pattern MANIFEST_ENTRY = Pattern.compile("(?m)^(Bundle-Activator|Main-Class):\\s*(\\S+)");
+
+    private static final List<String> CONVENTIONAL_SOURCES = List.of(
+            "src/main/java", "src/main/kotlin", "src/main/resources", "src/test/java", "src/test/kotlin");
+
+    private static final Map<String, String> BUILD_FILES = new LinkedHashMap<>();
+    static {
+        BUILD_FILES.put("pom.xml", "Maven");
+        BUILD_FILES.put("build.gradle", "Gradle");
+        BUILD_FILES.put("build.gradle.kts", "Gradle (Kotlin DSL)");
+        BUILD_FILES.put("build.xml", "Ant");
+        BUILD_FILES.put("META-INF/MANIFEST.MF", "OSGi bundle");
+        BUILD_FILES.put("package.json", "npm");
+        BUILD_FILES.put("pyproject.toml", "Python (pyproject)");
+        BUILD_FILES.put("setup.py", "Python (setup.py)");
+        BUILD_FILES.put("Cargo.toml", "Cargo");
+        BUILD_FILES.put("go.mod", "Go modules");
+        BUILD_FILES.put("CMakeLists.txt", "CMake");
+        BUILD_FILES.put("Makefile", "Make");
+    }
+
+    private static final Map<String, String> LANGUAGES = Map.ofEntries(
+            Map.entry("java", "Java"), Map.entry("kt", "Kotlin"), Map.entry("groovy", "Groovy"),
+            Map.entry("scala", "Scala"), Map.entry("js", "JavaScript"), Map.entry("jsx", "JavaScript"),
+            Map.entry("ts", "TypeScript"), Map.entry("tsx", "TypeScript"), Map.entry("py", "Python"),
+            Map.entry("go", "Go"), Map.entry("rs", "Rust"), Map.entry("c", "C"), Map.entry("h", "C"),
+            Map.entry("cpp", "C++"), Map.entry("hpp", "C++"), Map.entry("cs", "C#"), Map.entry("rb", "Ruby"),
+            Map.entry("php", "PHP"), Map.entry("xml", "XML"), Map.entry("json", "JSON"),
+            Map.entry("yml", "YAML"), Map.entry("yaml", "YAML"), Map.entry("properties", "Properties"),
+            Map.entry("sql", "SQL"), Map.entry("html", "HTML"), Map.entry("css", "CSS"),
+            Map.entry("md", "Markdown"), Map.entry("sh", "Shell"));
+
+    /** Resumen de un proyecto abierto. */
+    public record ProjectSummary(
+            String name,
+            List<String> natures,
+            List<String> buildTypes,
+            List<String> sourceFolders,
+            Map<String, Integer> languages,
+            List<String> entryPoints,
+            int files) {}
+
+    private final Map<String, ProjectSummary> summaries = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final RefreshJob job = new RefreshJob();
+    private final IResourceChangeListener listener = this::resourceChanged;
+    private volatile boolean started;
+
+    private ProjectSnapshotService() {}
+
+    public static ProjectSnapshotService getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Empieza a escuchar los cambios y calcula en segundo plano todos los
+     * proyectos abiertos. La llama el Activator; {@link #describe} también,
+     * por si el plugin se paró y volvió a arrancar.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        IWorkspace workspace = ResourcesPlugin.getWorkspace();
+        workspace.addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
+        for (IProject project : workspace.getRoot().getProjects()) {
+            dirty.add(project.getName());
+        }
+        job.schedule();
+    }
+
+    public synchronized void stop() {
+        if (!started) {
+            return;
+        }
+        started = false;
+        ResourcesPlugin.getWorkspace().removeResourceChangeListener(listener);
+        job.cancel();
+        summaries.clear();
+        dirty.clear();
+    }
+
+    /**
+     * Texto del resumen en como mucho {@code maxChars} caracteres. Sirve
+     * lo ya calculado, aunque haya un recálculo pendiente; si a algún
+     * proyecto le falta el primer resumen espera al Job (como mucho
+     * {@link #FIRST_SUMMARY_WAIT_MILLIS}) en vez de recorrerlo aquí otra vez.
+     * Si no cabe se pasa a una línea por proyecto y, en último caso, se corta.
+     */
+    public String describe(int maxChars) {
+        start();
+        List<IProject> open = new ArrayList<>();
+        boolean missing = false;
+        for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+            if (project.isOpen()) {
+                open.add(project);
+                if (!summaries.containsKey(project.getName()) && dirty.add(project.getName())) {
+                    // Proyecto que el listener aún no ha visto
+                    job.schedule();
+                }
+                missing |= !summaries.containsKey(project.getName());
+            }
+        }
+        if (missing) {
+            try {
+                job.join(FIRST_SUMMARY_WAIT_MILLIS, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OperationCanceledException();
+            }
+        }
+        if (open.isEmpty()) {
+            return "No hay proyectos abiertos.\n";
+        }
+        List<ProjectSummary> current = new ArrayList<>();
+        List<String> pending = new ArrayList<>();
+        for (IProject project : open) {
+            ProjectSummary summary = summaries.get(project.getName());
+            if (summary != null) {
+                current.add(summary);
+            } else {
+                pending.add(project.getName());
+            }
+        }
+        String pendingLine = pending.isEmpty() ? ""
+                : "Projects still being indexed: " + String.join(", ", pending) + "\n";
+        StringBuilder sb = new StringBuilder(pendingLine);
+        for (ProjectSummary summary : current) {
+            appendFull(summary, sb);
+        }
+        if (sb.length() <= maxChars) {
+            return sb.toString();
+        }
+        sb.setLength(0);
+        sb.append(pendingLine);
+        for (int i = 0; i < current.size(); i++) {
+            String line = compactLine(current.get(i));
+            if (sb.length() + line.length() > maxChars - 40) {
+                sb.append("... ").append(current.size() - i).append(" more projects\n");
+                break;
+            }
+            sb.append(line);
+        }
+        return sb.toString();
+    }
+
+    /* =======================
+       ACTUALIZACIÓN
+       ======================= */
+
+    private void resourceChanged(IResourceChangeEvent event) {
+        IResourceDelta root = event.getDelta();
+        if (root == null) {
+            return;
+        }
+        boolean changed = false;
+        for (IResourceDelta delta : root.getAffectedChildren()) {
+            if (projectAffected(delta)) {
+                dirty.add(delta.getResource().getName());
+                changed = true;
+            }
+        }
+        if (changed) {
+            job.schedule(REFRESH_DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * Si cambia el resumen del proyecto de {@code delta}: porque aparece,
+     * desaparece, se abre o cierra o cambia su descripción, o porque algo de
+     * dentro lo hace según {@link #affectsSummary}.
+     */
+    private static boolean projectAffected(IResourceDelta delta) {
+        if (delta.getKind() != IResourceDelta.CHANGED
+                || (delta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0) {
+            return true;
+        }
+        IProject project = (IProject) delta.getResource();
+        if (!project.isOpen()) {
+            return false;
+        }
+        ResourceFilter filter = ResourceFilter.forProject(project);
+        for (IResourceDelta child : delta.getAffectedChildren()) {
+            if (affectsSummary(child, filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Si el delta añade, quita o mueve algo que el resumen cuenta. Lo que
+     * {@code filter} excluye (salidas derivadas de un build, carpetas
+     * ignoradas) no se mira, y los cambios de contenido y de marcadores no
+     * alteran el resumen.
+     */
+    private static boolean affectsSummary(IResourceDelta delta, ResourceFilter filter) {
+        int flags = delta.getFlags();
+        // Descriptores que se leen: su contenido sí cuenta
+        if (delta.getResource().getType() == IResource.FILE && (flags & IResourceDelta.CONTENT) != 0) {
+            String name = delta.getResource().getName();
+            if (name.equals(".classpath") || name.equals("MANIFEST.MF")
+                    || name.equals(".gitignore") || name.equals(".aihelperignore")) {
+                return true;
+            }
+        }
+        if (filter.isIgnored(delta.getResource())) {
+            return false;
+        }
+        int kind = delta.getKind();
+        if (kind == IResourceDelta.ADDED || kind == IResourceDelta.REMOVED) {
+            return true;
+        }
+        if ((flags & (IResourceDelta.MOVED_FROM | IResourceDelta.MOVED_TO)) != 0) {
+            return true;
+        }
+        for (IResourceDelta child : delta.getAffectedChildren()) {
+            if (affectsSummary(child, filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class RefreshJob extends Job {
+
+        RefreshJob() {
+            super("AI Helper: resumen de proyectos");
+            setSystem(true);
+            setPriority(DECORATE);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            for (String name : List.copyOf(dirty)) {
+                if (monitor.isCanceled()) {
+                    return Status.CANCEL_STATUS;
+                }
+                dirty.remove(name);
+                IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+                if (project.exists() && project.isOpen()) {
+                    summaries.put(name, compute(project));
+                } else {
+                    summaries.remove(name);
+                }
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+    /* =======================
+       CÁLCULO
+       ======================= */
+
+    private static ProjectSummary compute(IProject project) {
+        ResourceFilter filter = ResourceFilter.forProject(project);
+        Map<String, Integer> languages = new HashMap<>();
+        List<String> entryPoints = new ArrayList<>();
+        int[] files = { 0 };
+        try {
+            project.accept(proxy -> {
+                if (filter.isIgnored(proxy)) {
+                    return false;
+                }
+                if (proxy.getType() != IResource.FILE) {
+                    return true;
+                }
+                files[0]++;
+                String name = proxy.getName();
+                int dot = name.lastIndexOf('.');
+                String language = dot < 0 ? null : LANGUAGES.get(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+                if (language != null) {
+                    languages.merge(language, 1, Integer::sum);
+                }
+                if (entryPoints.size() < MAX_ENTRY_POINTS && ENTRY_POINT_NAME.matcher(name).matches()) {
+                    entryPoints.add(proxy.requestFullPath().removeFirstSegments(1).toString());
+                }
+                return true;
+            }, IResource.NONE);
+        } catch (CoreException e) {
+            // Se resume lo recorrido
+        }
+
+        List<String> natures = new ArrayList<>();
+        try {
+            for (String id : project.getDescription().getNatureIds()) {
+                natures.add(shortNature(id));
+            }
+        } catch (CoreException e) {
+            // Sin descripción legible
+        }
+
+        List<String> buildTypes = new ArrayList<>();
+        for (Map.Entry<String, String> build : BUILD_FILES.entrySet()) {
+            if (project.getFile(build.getKey()).exists()) {
+                buildTypes.add(build.getValue() + " (" + build.getKey() + ")");
+            }
+        }
+
+        String manifest = read(project.getFile("META-INF/MANIFEST.MF"));
+        Matcher m = MANIFEST_ENTRY.matcher(manifest);
+        for (int i = 0; m.find(); i++) {
+            entryPoints.add(i, m.group(2) + " (" + m.group(1) + ")");
+        }
+
+        Map<String, Integer> topLanguages = new LinkedHashMap<>();
+        languages.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(MAX_LANGUAGES)
+                .forEach(e -> topLanguages.put(e.getKey(), e.getValue()));
+
+        return new ProjectSummary(project.getName(), List.copyOf(natures), List.copyOf(buildTypes),
+                sourceFolders(project), topLanguages,
+                List.copyOf(entryPoints.subList(0, Math.min(entryPoints.size(), MAX_ENTRY_POINTS))), files[0]);
+    }
+
+    /**
+     * Carpetas {@code kind="src"} del {@code .classpath}; si no hay, las
+     * convencionales de Maven y Gradle que existan o, si tampoco, {@code src}.
+     */
+    private static List<String> sourceFolders(IProject project) {
+        Set<String> folders = new LinkedHashSet<>();
+        Matcher m = CLASSPATH_SOURCE.matcher(read(project.getFile(".classpath")));
+        while (m.find() && folders.size() < MAX_SOURCE_FOLDERS) {
+            folders.add(m.group(1) != null ? m.group(1) : m.group(2));
+        }
+        if (folders.isEmpty()) {
+            for (String candidate : CONVENTIONAL_SOURCES) {
+                if (project.getFolder(candidate).exists()) {
+                    folders.add(candidate);
+                }
+            }
+        }
+        if (folders.isEmpty() && project.getFolder("src").exists()) {
+            folders.add("src");
+        }
+        return List.copyOf(folders);
+    }
+
+    /** {@code org.eclipse.jdt.core.javanature} → {@code java}. */
+    private static String shortNature(String id) {
+        String last = id.substring(id.lastIndexOf('.') + 1);
+        String lower = last.toLowerCase(Locale.ROOT);
+        int suffix = lower.lastIndexOf("nature");
+        return suffix > 0 ? last.substring(0, suffix) : last;
+    }
+
+    private static String read(IFile file) {
+        if (!file.exists()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(file.getContents(true), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                sb.append(line).append('\n');
+            }
+        } catch (Exception e) {
+            return "";
+        }
+        return sb.toString();
+    }
+
+    /* =======================
+       TEXTO
+       ======================= */
+
+    private static void appendFull(ProjectSummary s, StringBuilder sb) {
+        sb.append("Project: ").append(s.name()).append("\n");
+        if (!s.natures().isEmpty()) {
+            sb.append("  natures: ").append(String.join(", ", s.natures())).append("\n");
+        }
+        if (!s.buildTypes().isEmpty()) {
+            sb.append("  build: ").append(String.join(", ", s.buildTypes())).append("\n");
+        }
+        if (!s.sourceFolders().isEmpty()) {
+            sb.append("  sources: ").append(String.join(", ", s.sourceFolders())).append("\n");
+        }
+        sb.append("  files: ").append(s.files());
+        if (!s.languages().isEmpty()) {
+            sb.append(" (").append(languages(s)).append(")");
+        }
+        sb.append("\n");
+        if (!s.entryPoints().isEmpty()) {
+            sb.append("  entry points: ").append(String.join(", ", s.entryPoints())).append("\n");
+        }
+    }
+
+    private static String compactLine(ProjectSummary s) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Project: ").append(s.name()).append(" | ").append(s.files()).append(" files");
+        if (!s.languages().isEmpty()) {
+            sb.append(" (").append(languages(s)).append(")");
+        }
+        if (!s.buildTypes().isEmpty()) {
+            String build = s.buildTypes().get(0);
+            sb.append(" | ").append(build, 0, build.indexOf(" (") < 0 ? build.length() : build.indexOf(" ("));
+        }
+        return sb.append("\n").toString();
+    }
+
+    private static String languages(ProjectSummary s) {
+        List<String> parts = new ArrayList<>();
+        s.languages().forEach((language, count) -> parts.add(language + " " + count));
+        return String.join(", ", parts);
+    }
+}
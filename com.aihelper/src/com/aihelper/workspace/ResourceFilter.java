@@ -0,0 +1,275 @@
+package com.aihelper.workspace;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Qué recursos de un proyecto se saltan los recorridos del workspace:
+ * derivados (salidas de compilación), miembros privados del equipo,
+ * ocultos, carpetas de control de versiones y {@code node_modules}, y lo que
+ * excluyan los {@code .gitignore} (el del proyecto y los de carpetas
+ * superiores hasta la raíz del repositorio) y el {@code .aihelperignore} del
+ * proyecto, que se aplica el último y puede reincluir con {@code !}.
+ *
+ * Los filtros de recursos de Eclipse ya los aplica el propio modelo: lo
+ * filtrado no aparece en {@code members()} ni en los visitantes.
+ *
+ * Las reglas se compilan una vez por proyecto y se recompilan sólo cuando
+ * cambia alguno de los archivos de exclusión. Los recorridos podan en las
+ * carpetas excluidas, así que no se miran los {@code .gitignore} anidados.
+ */
+public final class ResourceFilter {
+
+    private static final List<String> BUILT_IN = List.of(".git/", ".svn/", ".hg/", "node_modules/");
+    private static final String GITIGNORE = ".gitignore";
+    private static final String AIHELPERIGNORE = ".aihelperignore";
+
+    /** Carpetas superiores que se miran buscando la raíz del repositorio. */
+    private static final int MAX_PARENT_LEVELS = 8;
+
+    private static final Map<String, ResourceFilter> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Una línea de un archivo de exclusión; {@code prefix} es la ruta del
+     * proyecto vista desde la carpeta del archivo que la declara.
+     */
+    private record Rule(Pattern pattern, boolean negated, boolean folderOnly, String prefix) {}
+
+    /** Un archivo de exclusión fuera del proyecto. */
+    private record Source(Path file, String prefix) {}
+
+    private final List<Rule> rules;
+    private final String signature;
+
+    private ResourceFilter(List<Rule> rules, String signature) {
+        this.rules = rules;
+        this.signature = signature;
+    }
+
+    /**
+     * Filtro de {@code project}, reutilizado mientras no cambien sus archivos
+     * de exclusión.
+     */
+    public static ResourceFilter forProject(IProject project) {
+        List<Source> parents = parentSources(project);
+        String signature = signature(project, parents);
+        ResourceFilter cached = CACHE.get(project.getName());
+        if (cached != null && cached.signature.equals(signature)) {
+            return cached;
+        }
+        List<Rule> rules = new ArrayList<>();
+        for (String line : BUILT_IN) {
+            addRule(rules, line, "");
+        }
+        for (Source source : parents) {
+            try {
+                for (String line : Files.readAllLines(source.file(), StandardCharsets.UTF_8)) {
+                    addRule(rules, line, source.prefix());
+                }
+            } catch (IOException | RuntimeException e) {
+                // Un .gitignore ilegible no impide recorrer el proyecto
+            }
+        }
+        for (String name : new String[] { GITIGNORE, AIHELPERIGNORE }) {
+            for (String line : readLines(project.getFile(name))) {
+                addRule(rules, line, "");
+            }
+        }
+        ResourceFilter filter = new ResourceFilter(List.copyOf(rules), signature);
+        CACHE.put(project.getName(), filter);
+        return filter;
+    }
+
+    /** Si un recorrido debe saltarse {@code resource} (y su contenido). */
+    public boolean isIgnored(IResource resource) {
+        if (resource.getType() == IResource.PROJECT) {
+            return false;
+        }
+        if (resource.isDerived() || resource.isTeamPrivateMember() || resource.isHidden()) {
+            return true;
+        }
+        return isIgnored(resource.getProjectRelativePath().toString(), resource.getType() != IResource.FILE);
+    }
+
+    public boolean isIgnored(IResourceProxy proxy) {
+        if (proxy.getType() == IResource.PROJECT) {
+            return false;
+        }
+        if (proxy.isDerived() || proxy.isTeamPrivateMember() || proxy.isHidden()) {
+            return true;
+        }
+        return isIgnored(proxy.requestFullPath().removeFirstSegments(1).toString(),
+                proxy.getType() != IResource.FILE);
+    }
+
+    /**
+     * Si las reglas excluyen {@code relativePath} (relativa al proyecto, con
+     * {@code /}). No mira las carpetas que la contienen: quien recorre ya
+     * ha podado las excluidas.
+     */
+    public boolean isIgnored(String relativePath, boolean folder) {
+        boolean ignored = false;
+        for (Rule rule : rules) {
+            if (rule.folderOnly() && !folder || ignored == !rule.negated()) {
+                continue;
+            }
+            if (rule.pattern().matcher(rule.prefix() + relativePath).matches()) {
+                ignored = !rule.negated();
+            }
+        }
+        return ignored;
+    }
+
+    /* =======================
+       FUENTES
+       ======================= */
+
+    /**
+     * {@code .gitignore} de las carpetas superiores al proyecto, del más
+     * externo al más interno, hasta la que contiene {@code .git}. Vacío si el
+     * proyecto no está dentro de un repositorio o es la propia raíz.
+     */
+    private static List<Source> parentSources(IProject project) {
+        IPath location = project.getLocation();
+        if (location == null) {
+            return List.of();
+        }
+        Path projectDir = location.toFile().toPath();
+        if (Files.exists(projectDir.resolve(".git"))) {
+            return List.of();
+        }
+        Deque<Source> sources = new ArrayDeque<>();
+        Path dir = projectDir.getParent();
+        for (int level = 0; dir != null && level < MAX_PARENT_LEVELS; level++, dir = dir.getParent()) {
+            Path ignore = dir.resolve(GITIGNORE);
+            if (Files.isRegularFile(ignore)) {
+                sources.addFirst(new Source(ignore, dir.relativize(projectDir).toString().replace('\\', '/') + "/"));
+            }
+            if (Files.exists(dir.resolve(".git"))) {
+                return new ArrayList<>(sources);
+            }
+        }
+        // Sin repositorio por encima: los .gitignore sueltos no aplican
+        return List.of();
+    }
+
+    private static String signature(IProject project, List<Source> parents) {
+        StringBuilder sb = new StringBuilder();
+        for (Source source : parents) {
+            sb.append(source.file()).append('@').append(source.file().toFile().lastModified()).append(';');
+        }
+        sb.append(project.getFile(GITIGNORE).getModificationStamp()).append(';')
+          .append(project.getFile(AIHELPERIGNORE).getModificationStamp());
+        return sb.toString();
+    }
+
+    private static List<String> readLines(IFile file) {
+        List<String> lines = new ArrayList<>();
+        if (!file.exists()) {
+            return lines;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(file.getContents(true), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } catch (Exception e) {
+            // Igual que arriba: sin reglas de este archivo
+        }
+        return lines;
+    }
+
+    /* =======================
+       REGLAS
+       ======================= */
+
+    /** Compila una línea con la sintaxis de {@code .gitignore}. */
+    private static void addRule(List<Rule> rules, String line, String prefix) {
+        String text = line.stripTrailing();
+        if (text.isEmpty() || text.startsWith("#")) {
+            return;
+        }
+        boolean negated = text.startsWith("!");
+        if (negated || text.startsWith("\\!") || text.startsWith("\\#")) {
+            text = text.substring(1);
+        }
+        boolean folderOnly = text.endsWith("/");
+        if (folderOnly) {
+            text = text.substring(0, text.length() - 1);
+        }
+        if (text.isEmpty()) {
+            return;
+        }
+        // Con una barra en medio o al principio, el patrón es relativo a la carpeta del archivo
+        boolean anchored = text.indexOf('/') >= 0;
+        if (text.startsWith("/")) {
+            text = text.substring(1);
+        }
+        String regex = (anchored ? "" : "(?:.*/)?") + toRegex(text);
+        rules.add(new Rule(Pattern.compile(regex), negated, folderOnly, anchored ? prefix : ""));
+    }
+
+    private static String toRegex(String glob) {
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (i < glob.length()) {
+            char c = glob.charAt(i);
+            if (c == '*' && glob.startsWith("**", i)) {
+                boolean slashBefore = i == 0 || glob.charAt(i - 1) == '/';
+                boolean slashAfter = i + 2 < glob.length() && glob.charAt(i + 2) == '/';
+                if (slashBefore && slashAfter) {
+                    sb.append("(?:.*/)?");
+                    i += 3;
+                } else {
+                    sb.append(".*");
+                    i += 2;
+                }
+                continue;
+            }
+            if (c == '*') {
+                sb.append("[^/]*");
+            } else if (c == '?') {
+                sb.append("[^/]");
+            } else if (c == '[') {
+                int close = glob.indexOf(']', i + 2);
+                if (close < 0) {
+                    sb.append("\\[");
+                } else {
+                    String set = glob.substring(i + 1, close);
+                    if (set.startsWith("!")) {
+                        set = "^" + set.substring(1);
+                    }
+                    sb.append('[').append(set.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                    i = close;
+                }
+            } else if (c == '\\' && i + 1 < glob.length()) {
+                char escaped = glob.charAt(++i);
+                sb.append(Character.isLetterOrDigit(escaped) ? String.valueOf(escaped) : "\\" + escaped);
+            } else if (Character.isLetterOrDigit(c) || c == '/') {
+                sb.append(c);
+            } else {
+                sb.append('\\').append(c);
+            }
+            i++;
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package com.aihelper.workspace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Listado compacto de rutas: cada carpeta aparece una vez con su nombre, el
+ * contenido va sangrado debajo, las cadenas de carpetas con un solo hijo se
+ * unen ({@code src/main/java/com/acme/}) y los archivos de una carpeta
+ * comparten línea separados por {@code ", "}. Evita repetir el prefijo
+ * común de cada ruta, que en proyectos Java es casi todo el texto.
+ */
+public class TreeEncoder {
+
+    /** Descripción del formato para quien lee el resultado. */
+    public static final String FORMAT =
+            "tree (one space of indent per level; folders end in '/'; single-child folders are joined; "
+            + "files of a folder share a line, separated by ', ')";
+
+    private static final int MAX_LINE = 120;
+
+    private static final class Node {
+        final Map<String, Node> folders = new TreeMap<>();
+        final List<String> files = new ArrayList<>();
+    }
+
+    /**
+     * Codifica {@code paths}: rutas relativas con {@code /}; las que acaban
+     * en {@code /} son carpetas cuyo contenido no se lista.
+     */
+    public String encode(List<String> paths) {
+        Node root = new Node();
+        for (String path : paths) {
+            boolean folder = path.endsWith("/");
+            String[] segments = path.split("/");
+            Node node = root;
+            int last = folder ? segments.length : segments.length - 1;
+            for (int i = 0; i < last; i++) {
+                if (!segments[i].isEmpty()) {
+                    node = node.folders.computeIfAbsent(segments[i], k -> new Node());
+                }
+            }
+            if (!folder) {
+                node.files.add(segments[segments.length - 1]);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        render(root, 0, sb);
+        return sb.toString();
+    }
+
+    private static void render(Node node, int depth, StringBuilder sb) {
+        String indent = " ".repeat(depth);
+        for (Map.Entry<String, Node> entry : node.folders.entrySet()) {
+            StringBuilder name = new StringBuilder(entry.getKey());
+            Node folder = entry.getValue();
+            while (folder.files.isEmpty() && folder.folders.size() == 1) {
+                Map.Entry<String, Node> only = folder.folders.entrySet().iterator().next();
+                name.append('/').append(only.getKey());
+                folder = only.getValue();
+            }
+            sb.append(indent).append(name).append("/\n");
+            render(folder, depth + 1, sb);
+        }
+        if (node.files.isEmpty()) {
+            return;
+        }
+        List<String> files = new ArrayList<>(node.files);
+        files.sort(null);
+        StringBuilder line = new StringBuilder(indent);
+        for (String file : files) {
+            if (line.length() > indent.length()) {
+                if (line.length() + file.length() + 2 > MAX_LINE) {
+                    sb.append(line).append(",\n");
+                    line.setLength(0);
+                    line.append(indent);
+                } else {
+                    line.append(", ");
+                }
+            }
+            line.append(file);
+        }
+        sb.append(line).append('\n');
+    }
+}
@@ -4,17 +4,36 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.ITextFileBuffer;
+import org.eclipse.core.filebuffers.ITextFileBufferManager;
+import org.eclipse.core.filebuffers.LocationKind;
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.content.IContentType;
+import org.eclipse.core.runtime.content.IContentTypeManager;
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ISynchronizable;
 import org.eclipse.jface.text.ITextSelection;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IEditorReference;
@@ -26,37 +45,38 @@ import org.eclipse.ui.texteditor.ITextEditor;
 
 public class WorkspaceService {
 
+    /**
+     * Extensiones binarias frecuentes que Eclipse no suele tener registradas
+     * como tipo de contenido.
+     */
+    private static final Set<String> BINARY_EXTENSIONS = Set.of(
+            "class", "jar", "war", "ear", "zip", "gz", "tgz", "bz2", "xz", "7z", "rar",
+            "png", "jpg", "jpeg", "gif", "bmp", "ico", "webp", "pdf",
+            "so", "dll", "dylib", "exe", "bin", "o", "a", "lib", "obj",
+            "ttf", "otf", "woff", "woff2", "mp3", "mp4", "wav", "avi", "mov",
+            "db", "sqlite", "ser", "dat");
+
+    private final TreeEncoder treeEncoder = new TreeEncoder();
+
     /* =======================
        WORKSPACE SNAPSHOT
        ======================= */
 
-    public String readWorkspaceSnapshot() {
-        StringBuilder sb = new StringBuilder();
-        IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-
-        try {
-            for (IProject project : root.getProjects()) {
-                if (!project.isOpen()) continue;
-                sb.append("Project: ").append(project.getName()).append("\n");
-                appendResources(project, sb, 1);
-            }
-        } catch (CoreException e) {
-            sb.append("ERROR: ").append(e.getMessage());
-        }
-
-        return sb.toString();
-    }
-
-    private void appendResources(IResource resource, StringBuilder sb, int level) throws CoreException {
-        for (IResource r : ((IProject) resource).members()) {
-            indent(sb, level);
-            sb.append(r.getName()).append("\n");
-        }
+    /**
+     * Resumen de los proyectos abiertos en como mucho {@code maxChars}
+     * caracteres, servido desde {@link ProjectSnapshotService}.
+     */
+    public String readWorkspaceSnapshot(int maxChars) {
+        return ProjectSnapshotService.getDefault().describe(maxChars);
     }
 
-    private void indent(StringBuilder sb, int level) {
-        for (int i = 0; i < level; i++) {
-            sb.append("  ");
+    /**
+     * Los recorridos se ejecutan en hilos de acciones que se interrumpen al
+     * cancelar desde la vista.
+     */
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new OperationCanceledException();
         }
     }
 
@@ -65,54 +85,168 @@ public class WorkspaceService {
        ======================= */
 
     public String listProjectTree(String projectName, int maxDepth, int maxFiles) {
-        StringBuilder sb = new StringBuilder();
-        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
-
-        if (!project.exists() || !project.isOpen()) {
+        List<String> paths = collectPaths(projectName, maxDepth, maxFiles);
+        if (paths == null) {
             return "Project not found or closed: " + projectName;
         }
+        return treeEncoder.encode(paths);
+    }
 
+    /**
+     * Rutas relativas del proyecto en orden alfabético, hasta
+     * {@code maxDepth} niveles y como mucho {@code maxEntries}. Las carpetas
+     * que no se recorren (por profundidad) o quedan vacías aparecen con
+     * {@code /} final. {@code null} si el proyecto no existe o está cerrado.
+     */
+    public List<String> collectPaths(String projectName, int maxDepth, int maxEntries) {
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
+        if (!project.exists() || !project.isOpen()) {
+            return null;
+        }
+        List<String> paths = new ArrayList<>();
         try {
-            listTree(project, sb, 0, maxDepth, new int[]{0}, maxFiles);
+            collectPaths(project, ResourceFilter.forProject(project), 0, maxDepth, paths, maxEntries);
         } catch (CoreException e) {
-            return "ERROR: " + e.getMessage();
+            // Lo reunido hasta el error sigue siendo útil
         }
-
-        return sb.toString();
+        paths.sort(null);
+        return paths;
     }
 
-    private void listTree(
-            IResource resource,
-            StringBuilder sb,
+    private void collectPaths(
+            IContainer container,
+            ResourceFilter filter,
             int depth,
             int maxDepth,
-            int[] counter,
-            int maxFiles
+            List<String> paths,
+            int maxEntries
     ) throws CoreException {
 
-        if (depth > maxDepth || counter[0] >= maxFiles) return;
+        for (IResource r : container.members()) {
+            if (paths.size() >= maxEntries) return;
+            checkInterrupted();
+            if (filter.isIgnored(r)) continue;
 
-        if (resource instanceof IFile) {
-            indent(sb, depth);
-            sb.append(resource.getProjectRelativePath()).append("\n");
-            counter[0]++;
-            return;
+            String path = r.getProjectRelativePath().toString();
+            if (r instanceof IContainer child) {
+                int before = paths.size();
+                if (depth + 1 < maxDepth) {
+                    collectPaths(child, filter, depth + 1, maxDepth, paths, maxEntries);
+                }
+                if (paths.size() == before) {
+                    paths.add(path + "/");
+                }
+            } else {
+                paths.add(path);
+            }
         }
+    }
 
-        if (resource instanceof IContainer) {
-            if (!(resource instanceof IProject)) {
-                indent(sb, depth);
-                sb.append(resource.getProjectRelativePath()).append("/\n");
-                counter[0]++;
-                if (counter[0] >= maxFiles) return;
-            }
+    /* =======================
+       FILE MATCHING
+       ======================= */
+
+    /**
+     * Rutas relativas de los archivos del proyecto que encajan con
+     * {@code glob} ({@code *}, {@code ?} y {@code **}); si el patrón no lleva
+     * {@code /} se compara sólo con el nombre. Se omite lo que excluye
+     * {@link ResourceFilter}. En orden alfabético y como mucho {@code maxFiles}.
+     */
+    public List<String> findFiles(String projectName, String glob, int maxFiles) {
+        return findFiles(projectName, glob, maxFiles, proxy -> true);
+    }
+
+    /**
+     * Como {@link #findFiles(String, String, int)}, pero sólo archivos que
+     * merece la pena leer como texto: se descartan, sin abrirlos, los de más
+     * de {@code maxBytes} y los de un tipo de contenido o extensión binarios.
+     */
+    public List<String> findTextFiles(String projectName, String glob, int maxFiles, long maxBytes) {
+        return findFiles(projectName, glob, maxFiles, proxy -> isTextCandidate(proxy, maxBytes));
+    }
+
+    private List<String> findFiles(String projectName, String glob, int maxFiles, Predicate<IResourceProxy> accept) {
+        List<String> matches = new ArrayList<>();
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
+        if (!project.exists() || !project.isOpen() || glob == null || glob.isBlank()) {
+            return matches;
+        }
+        String pattern = glob.strip().replace('\\', '/');
+        boolean byName = pattern.indexOf('/') < 0;
+        ResourceFilter filter = ResourceFilter.forProject(project);
+        try {
+            project.accept(proxy -> {
+                checkInterrupted();
+                if (filter.isIgnored(proxy)) {
+                    return false;
+                }
+                if (proxy.getType() == IResource.FILE) {
+                    String path = proxy.requestFullPath().removeFirstSegments(1).toString();
+                    if (globMatches(pattern, 0, byName ? proxy.getName() : path, 0) && accept.test(proxy)) {
+                        matches.add(path);
+                    }
+                }
+                return true;
+            }, IResource.NONE);
+        } catch (CoreException e) {
+            return matches;
+        }
+        matches.sort(null);
+        return matches.size() > maxFiles ? new ArrayList<>(matches.subList(0, maxFiles)) : matches;
+    }
+
+    /**
+     * Decide por el nombre y el tamaño en disco, sin leer el contenido. Un
+     * nombre sin tipo registrado ni extensión conocida se considera texto.
+     */
+    private static boolean isTextCandidate(IResourceProxy proxy, long maxBytes) {
+        String name = proxy.getName();
+        int dot = name.lastIndexOf('.');
+        if (dot >= 0 && BINARY_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT))) {
+            return false;
+        }
+        IContentTypeManager manager = Platform.getContentTypeManager();
+        IContentType[] types = manager.findContentTypesFor(name);
+        IContentType text = manager.getContentType(IContentTypeManager.CT_TEXT);
+        if (types.length > 0 && text != null && Arrays.stream(types).noneMatch(type -> type.isKindOf(text))) {
+            return false;
+        }
+        IPath location = proxy.requestResource().getLocation();
+        return location == null || location.toFile().length() <= maxBytes;
+    }
 
-            if (depth < maxDepth) {
-                for (IResource r : ((IContainer) resource).members()) {
-                    listTree(r, sb, depth + 1, maxDepth, counter, maxFiles);
+    private static boolean globMatches(String glob, int gi, String path, int pi) {
+        while (gi < glob.length()) {
+            char c = glob.charAt(gi);
+            if (c == '*') {
+                boolean deep = gi + 1 < glob.length() && glob.charAt(gi + 1) == '*';
+                int next = gi + (deep ? 2 : 1);
+                if (deep && next < glob.length() && glob.charAt(next) == '/'
+                        && globMatches(glob, next + 1, path, pi)) {
+                    // "**/" también encaja con ninguna carpeta
+                    return true;
                 }
+                for (int k = pi; k <= path.length(); k++) {
+                    if (globMatches(glob, next, path, k)) {
+                        return true;
+                    }
+                    if (k < path.length() && !deep && path.charAt(k) == '/') {
+                        return false;
+                    }
+                }
+                return false;
+            }
+            if (pi >= path.length()) {
+                return false;
             }
+            char p = path.charAt(pi);
+            if (c == '?' ? p == '/' : c != p) {
+                return false;
+            }
+            gi++;
+            pi++;
         }
+        return pi == path.length();
     }
 
     /* =======================
@@ -127,6 +261,10 @@ public class WorkspaceService {
         }
 
         IFile file = project.getFile(path);
+        IDocument document = bufferedDocument(file);
+        if (document != null) {
+            return readDocumentRange(document, startLine, endLine);
+        }
         if (!file.exists()) {
             return "File not found: " + path;
         }
@@ -154,6 +292,33 @@ public class WorkspaceService {
         return sb.toString();
     }
 
+    /* =======================
+       EDITOR SNAPSHOT
+       ======================= */
+
+    /**
+     * Captura el contenido del editor activo, la selección y los editores
+     * abiertos. Se ejecuta en el hilo de UI (sincronizando si hace falta).
+     */
+    public EditorSnapshot snapshotEditors() {
+        if (Display.getCurrent() != null) {
+            return captureEditors();
+        }
+        EditorSnapshot[] result = { EditorSnapshot.EMPTY };
+        Display display = PlatformUI.isWorkbenchRunning() ? PlatformUI.getWorkbench().getDisplay() : null;
+        if (display != null && !display.isDisposed()) {
+            display.syncExec(() -> result[0] = captureEditors());
+        }
+        return result[0];
+    }
+
+    private EditorSnapshot captureEditors() {
+        if (PlatformUI.getWorkbench().getActiveWorkbenchWindow() == null) {
+            return EditorSnapshot.EMPTY;
+        }
+        return new EditorSnapshot(getActiveEditorContent(), getActiveSelectionText(), listOpenFiles());
+    }
+
     /* =======================
        OPEN FILES
        ======================= */
@@ -216,7 +381,7 @@ public class WorkspaceService {
         }
 
         try {
-            searchInProject(project, text, sb, new int[]{0}, maxResults);
+            searchInProject(project, ResourceFilter.forProject(project), text, sb, new int[]{0}, maxResults);
         } catch (CoreException e) {
             return "ERROR: " + e.getMessage();
         }
@@ -226,6 +391,7 @@ public class WorkspaceService {
 
     private void searchInProject(
             IResource resource,
+            ResourceFilter filter,
             String text,
             StringBuilder sb,
             int[] counter,
@@ -233,6 +399,8 @@ public class WorkspaceService {
     ) throws CoreException {
 
         if (counter[0] >= maxResults) return;
+        checkInterrupted();
+        if (filter.isIgnored(resource)) return;
 
         if (resource instanceof IFile) {
             IFile file = (IFile) resource;
@@ -258,9 +426,9 @@ public class WorkspaceService {
             } catch (Exception ignored) {}
         }
 
-        if (resource instanceof IProject) {
-            for (IResource r : ((IProject) resource).members()) {
-                searchInProject(r, text, sb, counter, maxResults);
+        if (resource instanceof IContainer) {
+            for (IResource r : ((IContainer) resource).members()) {
+                searchInProject(r, filter, text, sb, counter, maxResults);
             }
         }
     }
@@ -303,12 +471,98 @@ public class WorkspaceService {
                 : "";
     }
     
+    /**
+     * Sello de modificación del archivo; {@link IResource#NULL_STAMP} si no
+     * existe o si tiene cambios sin guardar en un editor, porque entonces el
+     * sello del disco no dice nada de lo que se leerá.
+     */
+    public long getModificationStamp(String projectName, String relativePath) {
+        IFile file = ResourcesPlugin.getWorkspace()
+                .getRoot()
+                .getProject(projectName)
+                .getFile(relativePath);
+        ITextFileBuffer buffer = textFileBuffer(file);
+        if (buffer != null && buffer.isDirty()) {
+            return IResource.NULL_STAMP;
+        }
+        return file.getModificationStamp();
+    }
+
+    /* =======================
+       FILE BUFFERS
+       ======================= */
+
+    /**
+     * Buffer ya abierto del archivo (por un editor u otro cliente) o
+     * {@code null}. No se conecta uno nuevo: sólo se aprovecha lo que ya está
+     * en memoria.
+     */
+    private static ITextFileBuffer textFileBuffer(IFile file) {
+        try {
+            ITextFileBufferManager manager = FileBuffers.getTextFileBufferManager();
+            return manager == null ? null : manager.getTextFileBuffer(file.getFullPath(), LocationKind.IFILE);
+        } catch (RuntimeException e) {
+            // Sin el plugin de buffers (fuera del workbench) se lee del disco
+            return null;
+        }
+    }
+
+    private static IDocument bufferedDocument(IFile file) {
+        ITextFileBuffer buffer = textFileBuffer(file);
+        return buffer == null ? null : buffer.getDocument();
+    }
+
+    /**
+     * Lee del documento con su cerrojo si lo tiene: el editor puede estar
+     * modificándolo desde el hilo de UI.
+     */
+    private static <T> T readDocument(IDocument document, Function<IDocument, T> reader) {
+        Object lock = document instanceof ISynchronizable sync ? sync.getLockObject() : null;
+        if (lock == null) {
+            return reader.apply(document);
+        }
+        synchronized (lock) {
+            return reader.apply(document);
+        }
+    }
+
+    /** Como la lectura de disco, pero tomando cada línea del documento. */
+    private static String readDocumentRange(IDocument document, int startLine, int endLine) {
+        return readDocument(document, doc -> {
+            StringBuilder sb = new StringBuilder();
+            int lines = doc.getNumberOfLines();
+            try {
+                for (int line = Math.max(1, startLine); line <= Math.min(endLine, lines); line++) {
+                    IRegion region = doc.getLineInformation(line - 1);
+                    if (line == lines && line > 1 && region.getLength() == 0) {
+                        // Tras el último salto no hay una línea real
+                        break;
+                    }
+                    sb.append(line).append(": ")
+                      .append(doc.get(region.getOffset(), region.getLength())).append("\n");
+                }
+            } catch (BadLocationException e) {
+                return "ERROR: " + e.getMessage();
+            }
+            return sb.toString();
+        });
+    }
+
+    /**
+     * Contenido del archivo con saltos {@code \n}: el del editor si está
+     * abierto (con lo que haya sin guardar) o el del disco.
+     */
     public String readFile(String projectName, String relativePath) {
         IFile file = ResourcesPlugin.getWorkspace()
                 .getRoot()
                 .getProject(projectName)
                 .getFile(relativePath);
 
+        IDocument document = bufferedDocument(file);
+        if (document != null) {
+            String text = readDocument(document, IDocument::get);
+            return text.indexOf('\r') < 0 ? text : text.replace("\r\n", "\n").replace('\r', '\n');
+        }
         if (!file.exists()) return "";
 
         StringBuilder sb = new StringBuilder();
@@ -367,37 +621,10 @@ public class WorkspaceService {
     }
     
     public String listAllFilesRecursive(String project) {
-        StringBuilder sb = new StringBuilder();
-        IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-        IProject p = root.getProject(project);
-        if (p == null || !p.exists() || !p.isOpen()) {
+        List<String> paths = collectPaths(project, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        if (paths == null) {
             return "[SYSTEM] Proyecto no encontrado o no abierto: " + project;
         }
-        try {
-            listFilesRecursiveHelper(p, sb, "");
-        } catch (CoreException e) {
-            return "[SYSTEM] Error al listar archivos: " + e.getMessage();
-        }
-        return sb.toString();
-    }
-
-    private void listFilesRecursiveHelper(IResource resource, StringBuilder sb, String prefix) throws CoreException {
-        if (resource.getType() == IResource.FILE) {
-            sb.append(prefix).append(resource.getName()).append("\n");
-            return;
-        }
-
-        if (resource instanceof IContainer) {
-            IContainer container = (IContainer) resource;
-            String nextPrefix = prefix;
-            if (!(resource instanceof IProject)) {
-                nextPrefix = prefix.isEmpty()
-                        ? resource.getName() + "/"
-                        : prefix + resource.getName() + "/";
-            }
-            for (IResource r : container.members()) {
-                listFilesRecursiveHelper(r, sb, nextPrefix);
-            }
-        }
+        return treeEncoder.encode(paths);
     }
-}
\ No newline at end of file
+}